@@ -2,8 +2,10 @@ package com.ejemplo.microservicio_venta;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MicroservicioVentaApplication {
     public static void main(String[] args) {
         SpringApplication.run(MicroservicioVentaApplication.class, args);
@@ -0,0 +1,63 @@
+package com.ejemplo.microservicio_venta.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registra el {@link AdmisionInterceptor} sobre la API de ventas.
+ *
+ * La suma de las concurrencias máximas de los grupos debe caber en el pool de la base primaria
+ * dejando {@value #CONEXIONES_RESERVADAS} conexiones libres para el trabajo que no pasa por la
+ * admisión (purga por retención, reconstrucción del índice al iniciar, medición del retraso de la
+ * réplica). Si no cabe, las peticiones de más esperan conexión en Hikari (connection-timeout) en
+ * lugar de recibir un 503 inmediato, y se advierte en el log al iniciar.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmisionProperties.class)
+public class AdmisionConfig implements WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmisionConfig.class);
+
+    // maximum-pool-size por defecto de Hikari
+    static final int POOL_HIKARI_POR_DEFECTO = 10;
+
+    // Conexiones de la primaria que quedan fuera del presupuesto de los grupos de admisión
+    static final int CONEXIONES_RESERVADAS = 2;
+
+    private final AdmisionProperties properties;
+    private final ObjectProvider<MeterRegistry> registry;
+    private final Environment environment;
+
+    public AdmisionConfig(AdmisionProperties properties, ObjectProvider<MeterRegistry> registry, Environment environment) {
+        this.properties = properties;
+        this.registry = registry;
+        this.environment = environment;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        if (properties.isHabilitada()) {
+            AdmisionInterceptor interceptor =
+                    new AdmisionInterceptor(properties, registry.getIfAvailable(SimpleMeterRegistry::new));
+            verificarPool(interceptor.getConcurrenciaMaximaTotal());
+            interceptors.addInterceptor(interceptor).addPathPatterns("/api/**");
+        }
+    }
+
+    private void verificarPool(int concurrenciaMaximaTotal) {
+        int pool = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, POOL_HIKARI_POR_DEFECTO);
+        if (concurrenciaMaximaTotal + CONEXIONES_RESERVADAS > pool) {
+            log.warn("La concurrencia máxima de los grupos de admisión ({}) más {} conexiones reservadas supera "
+                    + "el pool de conexiones ({}): las peticiones excedentes esperarán conexión en lugar de recibir 503",
+                    concurrenciaMaximaTotal, CONEXIONES_RESERVADAS, pool);
+        }
+    }
+}
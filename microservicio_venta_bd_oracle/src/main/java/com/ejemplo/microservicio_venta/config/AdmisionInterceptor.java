@@ -0,0 +1,111 @@
+package com.ejemplo.microservicio_venta.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Control de admisión por compartimentos (bulkheads) para los endpoints REST.
+ *
+ * Cada petición se asigna a un grupo según {@link GrupoAdmision} y solo se atiende si el
+ * límite adaptativo del grupo lo permite; si no, se responde de inmediato 503 con
+ * {@code Retry-After}, sin ocupar una conexión del pool. Así las consultas pesadas no
+ * pueden dejar sin conexiones a las operaciones CRUD.
+ *
+ * Métricas por grupo: {@code ventas.admision.limite}, {@code ventas.admision.en.curso}
+ * y {@code ventas.admision.rechazos}.
+ */
+public class AdmisionInterceptor implements HandlerInterceptor {
+
+    private static final String ATRIBUTO_ADMISION = AdmisionInterceptor.class.getName() + ".admision";
+
+    private final Map<String, LimitadorAdaptativo> limitadores = new LinkedHashMap<>();
+    private final String retryAfterSegundos;
+
+    public AdmisionInterceptor(AdmisionProperties properties, MeterRegistry registry) {
+        this.retryAfterSegundos = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+
+        // Los grupos conocidos siempre existen; la configuración solo ajusta sus límites
+        Map<String, AdmisionProperties.Grupo> grupos = new LinkedHashMap<>();
+        grupos.put(GrupoAdmision.CRUD, new AdmisionProperties.Grupo());
+        grupos.put(GrupoAdmision.REPORTES, new AdmisionProperties.Grupo());
+        grupos.putAll(properties.getGrupos());
+
+        grupos.forEach((nombre, grupo) -> {
+            LimitadorAdaptativo limitador = new LimitadorAdaptativo(grupo);
+            limitadores.put(nombre, limitador);
+
+            Gauge.builder("ventas.admision.limite", limitador, LimitadorAdaptativo::getLimite)
+                    .tag("grupo", nombre)
+                    .description("Límite de concurrencia actual del grupo")
+                    .register(registry);
+            Gauge.builder("ventas.admision.en.curso", limitador, LimitadorAdaptativo::getEnCurso)
+                    .tag("grupo", nombre)
+                    .description("Peticiones del grupo en curso")
+                    .register(registry);
+            FunctionCounter.builder("ventas.admision.rechazos", limitador, LimitadorAdaptativo::getRechazos)
+                    .tag("grupo", nombre)
+                    .description("Peticiones rechazadas con 503")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * @return Suma de las concurrencias máximas de todos los grupos: conexiones que la API
+     *         puede llegar a pedir a la vez al pool de la base primaria.
+     */
+    public int getConcurrenciaMaximaTotal() {
+        return limitadores.values().stream().mapToInt(LimitadorAdaptativo::getMaximo).sum();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        LimitadorAdaptativo limitador = limitadores.get(grupo(handlerMethod));
+        if (limitador == null) {
+            return true;
+        }
+        if (!limitador.intentarAdquirir()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSegundos);
+            return false;
+        }
+        request.setAttribute(ATRIBUTO_ADMISION, new Admision(limitador, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ATRIBUTO_ADMISION) instanceof Admision admision) {
+            request.removeAttribute(ATRIBUTO_ADMISION);
+            admision.limitador().liberar(System.nanoTime() - admision.inicioNanos());
+        }
+    }
+
+    LimitadorAdaptativo limitador(String grupo) {
+        return limitadores.get(grupo);
+    }
+
+    private static String grupo(HandlerMethod handlerMethod) {
+        GrupoAdmision anotacion = handlerMethod.getMethodAnnotation(GrupoAdmision.class);
+        if (anotacion == null) {
+            anotacion = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), GrupoAdmision.class);
+        }
+        return anotacion != null ? anotacion.value() : GrupoAdmision.CRUD;
+    }
+
+    private record Admision(LimitadorAdaptativo limitador, long inicioNanos) {
+    }
+}
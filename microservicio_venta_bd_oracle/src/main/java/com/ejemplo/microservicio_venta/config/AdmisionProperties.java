@@ -0,0 +1,93 @@
+package com.ejemplo.microservicio_venta.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuración del control de admisión ({@code ventas.admision.*}).
+ */
+@ConfigurationProperties(prefix = "ventas.admision")
+public class AdmisionProperties {
+
+    // Si es false no se registra el interceptor
+    private boolean habilitada = true;
+
+    // Valor del encabezado Retry-After en las respuestas 503
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Configuración por grupo (ver GrupoAdmision)
+    private Map<String, Grupo> grupos = new LinkedHashMap<>();
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Map<String, Grupo> getGrupos() {
+        return grupos;
+    }
+
+    public void setGrupos(Map<String, Grupo> grupos) {
+        this.grupos = grupos;
+    }
+
+    /**
+     * Límites de un grupo. El límite efectivo se adapta entre {@code minConcurrencia} y
+     * {@code maxConcurrencia} según la latencia observada frente a {@code latenciaObjetivo}.
+     */
+    public static class Grupo {
+
+        private int minConcurrencia = 1;
+        // Por defecto, crud + reportes suman 8: el maximum-pool-size por defecto de Hikari (10)
+        // menos las conexiones reservadas fuera de la admisión (ver AdmisionConfig)
+        private int maxConcurrencia = 4;
+        private int concurrenciaInicial = 3;
+        private Duration latenciaObjetivo = Duration.ofMillis(500);
+
+        public int getMinConcurrencia() {
+            return minConcurrencia;
+        }
+
+        public void setMinConcurrencia(int minConcurrencia) {
+            this.minConcurrencia = minConcurrencia;
+        }
+
+        public int getMaxConcurrencia() {
+            return maxConcurrencia;
+        }
+
+        public void setMaxConcurrencia(int maxConcurrencia) {
+            this.maxConcurrencia = maxConcurrencia;
+        }
+
+        public int getConcurrenciaInicial() {
+            return concurrenciaInicial;
+        }
+
+        public void setConcurrenciaInicial(int concurrenciaInicial) {
+            this.concurrenciaInicial = concurrenciaInicial;
+        }
+
+        public Duration getLatenciaObjetivo() {
+            return latenciaObjetivo;
+        }
+
+        public void setLatenciaObjetivo(Duration latenciaObjetivo) {
+            this.latenciaObjetivo = latenciaObjetivo;
+        }
+    }
+}
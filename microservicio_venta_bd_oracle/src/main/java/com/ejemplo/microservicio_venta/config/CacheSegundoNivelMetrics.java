@@ -0,0 +1,64 @@
+package com.ejemplo.microservicio_venta.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Publica en Micrometer las estadísticas de cada región de la caché de segundo nivel.
+ *
+ * Por región expone aciertos, fallos y la tasa de aciertos
+ * ({@code hibernate.cache.region.hit.ratio}), visibles en {@code /actuator/metrics}.
+ * Requiere {@code hibernate.generate_statistics=true}.
+ */
+@Component
+public class CacheSegundoNivelMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public CacheSegundoNivelMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Set<String> regiones = new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()));
+        for (String region : regiones) {
+            FunctionCounter.builder("hibernate.cache.region.hits", statistics, s -> aciertos(s.getCacheRegionStatistics(region)))
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.misses", statistics, s -> fallos(s.getCacheRegionStatistics(region)))
+                    .tag("region", region)
+                    .register(registry);
+            Gauge.builder("hibernate.cache.region.hit.ratio", statistics, s -> tasaAciertos(s.getCacheRegionStatistics(region)))
+                    .tag("region", region)
+                    .description("Aciertos / (aciertos + fallos) de la región")
+                    .register(registry);
+        }
+    }
+
+    // Una región aún no creada (null) cuenta como sin accesos
+
+    private static long aciertos(CacheRegionStatistics region) {
+        return region == null ? 0 : region.getHitCount();
+    }
+
+    private static long fallos(CacheRegionStatistics region) {
+        return region == null ? 0 : region.getMissCount();
+    }
+
+    private static double tasaAciertos(CacheRegionStatistics region) {
+        long total = aciertos(region) + fallos(region);
+        return total == 0 ? 0.0 : (double) aciertos(region) / total;
+    }
+}
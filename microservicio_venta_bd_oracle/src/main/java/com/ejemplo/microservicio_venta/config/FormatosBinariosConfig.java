@@ -0,0 +1,88 @@
+package com.ejemplo.microservicio_venta.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Negociación de contenido en formatos binarios para /api/ventas.
+ *
+ * Además de JSON (por defecto), según el encabezado Accept/Content-Type se aceptan:
+ * <ul>
+ *   <li>{@code application/x-jackson-smile} (Smile)</li>
+ *   <li>{@code application/cbor} (CBOR)</li>
+ *   <li>{@code application/x-protobuf} (esquema {@code proto/venta.proto})</li>
+ * </ul>
+ * Los tres usan la configuración Jackson de Spring Boot (fechas ISO-8601, etc.). Los enlaces
+ * HATEOAS se omiten en estos formatos salvo que {@code ventas.formatos-binarios.incluir-links=true}.
+ */
+@Configuration
+public class FormatosBinariosConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+    private final boolean incluirLinks;
+
+    public FormatosBinariosConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders,
+                                  @Value("${ventas.formatos-binarios.incluir-links:false}") boolean incluirLinks) {
+        this.builders = builders;
+        this.incluirLinks = incluirLinks;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Reemplazamos los convertidores Smile/CBOR por defecto para usar nuestros mappers;
+        // se agregan al final para que JSON siga siendo el formato por defecto.
+        converters.removeIf(c -> c instanceof MappingJackson2SmileHttpMessageConverter
+                || c instanceof MappingJackson2CborHttpMessageConverter);
+
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                mapperBinario(builders.getObject(), new SmileFactory(), incluirLinks)));
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                mapperBinario(builders.getObject(), new CBORFactory(), incluirLinks)));
+        converters.add(new VentaProtobufHttpMessageConverter(
+                mapperProtobuf(builders.getObject(), incluirLinks)));
+    }
+
+    /**
+     * Crea un ObjectMapper para un formato binario a partir de la configuración Jackson de la aplicación.
+     */
+    static ObjectMapper mapperBinario(Jackson2ObjectMapperBuilder builder, JsonFactory factory, boolean incluirLinks) {
+        if (!incluirLinks) {
+            builder.mixIn(RepresentationModel.class, SinLinks.class);
+        }
+        return builder.factory(factory).build();
+    }
+
+    /**
+     * Mapper para Protobuf: los montos se escriben como texto (campos string del esquema)
+     * y se ignoran las propiedades que el esquema no declara.
+     */
+    static ObjectMapper mapperProtobuf(Jackson2ObjectMapperBuilder builder, boolean incluirLinks) {
+        ObjectMapper mapper = mapperBinario(builder, new ProtobufFactory(), incluirLinks);
+        mapper.configOverride(BigDecimal.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+        mapper.enable(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        return mapper;
+    }
+
+    // Mixin que oculta los enlaces HATEOAS de RepresentationModel
+    @JsonIgnoreProperties("links")
+    abstract static class SinLinks {
+    }
+}
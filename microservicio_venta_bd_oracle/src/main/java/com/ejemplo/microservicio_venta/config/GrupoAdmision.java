@@ -0,0 +1,25 @@
+package com.ejemplo.microservicio_venta.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indica el compartimento (bulkhead) de control de admisión de un endpoint.
+ *
+ * Los endpoints sin esta anotación pertenecen a {@link #CRUD}. Cada grupo tiene su propio
+ * límite de concurrencia, configurado en {@code ventas.admision.grupos.<nombre>.*}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GrupoAdmision {
+
+    // Operaciones transaccionales cortas (alta, consulta por id, actualización, borrado)
+    String CRUD = "crud";
+
+    // Consultas y operaciones pesadas (listados, ganancias, búsquedas, borrados masivos)
+    String REPORTES = "reportes";
+
+    String value();
+}
@@ -0,0 +1,75 @@
+package com.ejemplo.microservicio_venta.config;
+
+import com.ejemplo.microservicio_venta.config.LecturaEscrituraRoutingDataSource.Destino;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Dialecto JPA que decide el destino (primaria o réplica) al comenzar cada transacción.
+ *
+ * El destino queda fijado en {@link LecturaEscrituraRoutingDataSource} hasta el final de la
+ * transacción. Si es la réplica, la sesión pasa a {@link CacheStoreMode#BYPASS}: puede leer de la
+ * caché de segundo nivel, pero no escribe en ella. Así lo leído de una réplica atrasada no queda en la
+ * caché compartida (con expiraciones de horas) para los demás clientes, fuera del control de
+ * {@code max-lag} y de la lectura de lo propio.
+ */
+public class LecturaEscrituraJpaDialect extends HibernateJpaDialect {
+
+    private final LecturaEscrituraRoutingDataSource enrutador;
+
+    public LecturaEscrituraJpaDialect(LecturaEscrituraRoutingDataSource enrutador) {
+        this.enrutador = enrutador;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Destino destino = enrutador.destinoPara(definition.isReadOnly());
+        Destino destinoAnterior = enrutador.fijarDestino(destino);
+        // Hibernate toma el modo de la propiedad de la sesión en find() y de la sesión en las consultas:
+        // setProperty actualiza ambos
+        Object storeModeAnterior = entityManager.getProperties().get(SpecHints.HINT_SPEC_CACHE_STORE_MODE);
+        try {
+            if (destino == Destino.REPLICA) {
+                entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+            }
+            Object datos = super.beginTransaction(entityManager, definition);
+            return new DatosTransaccion(datos, entityManager, storeModeAnterior, destinoAnterior);
+        } catch (RuntimeException | SQLException e) {
+            restaurar(entityManager, storeModeAnterior, destinoAnterior);
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (!(transactionData instanceof DatosTransaccion datos)) {
+            super.cleanupTransaction(transactionData);
+            return;
+        }
+        try {
+            super.cleanupTransaction(datos.delegado());
+        } finally {
+            restaurar(datos.entityManager(), datos.storeModeAnterior(), datos.destinoAnterior());
+        }
+    }
+
+    private void restaurar(EntityManager entityManager, Object storeMode, Destino destino) {
+        if (entityManager.isOpen()) {
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE,
+                    storeMode != null ? storeMode : CacheStoreMode.USE);
+        }
+        enrutador.fijarDestino(destino);
+    }
+
+    private record DatosTransaccion(Object delegado, EntityManager entityManager, Object storeModeAnterior,
+                                    Destino destinoAnterior) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.ejemplo.microservicio_venta.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a la réplica y el resto a la primaria.
+ *
+ * Una lectura va a la primaria aunque sea de solo lectura cuando:
+ * <ul>
+ *   <li>el cliente escribió hace poco ({@link LecturaPropiaFilter}, lectura de lo propio), o</li>
+ *   <li>la réplica no es utilizable (retraso mayor al tolerado o error al medirlo).</li>
+ * </ul>
+ * Debe envolverse en un {@code LazyConnectionDataSourceProxy}, para que la conexión se pida
+ * cuando la transacción ya está marcada como de solo lectura.
+ *
+ * Con JPA, {@link LecturaEscrituraJpaDialect} fija el destino al comenzar cada transacción
+ * ({@link #fijarDestino}), de modo que la caché de segundo nivel sepa de dónde vienen los datos.
+ */
+public class LecturaEscrituraRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public enum Destino { PRIMARIA, REPLICA }
+
+    // Destino fijado para la transacción en curso del hilo (null = se decide al pedir la conexión)
+    private static final ThreadLocal<Destino> DESTINO_FIJADO = new ThreadLocal<>();
+
+    private final DataSource primaria;
+    private final DataSource replica;
+    // Estado de la réplica según MonitorLagReplica (por defecto, siempre utilizable)
+    private volatile BooleanSupplier replicaUtilizable = () -> true;
+
+    public LecturaEscrituraRoutingDataSource(DataSource primaria, DataSource replica) {
+        this.primaria = primaria;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Destino fijado = DESTINO_FIJADO.get();
+        if (fijado != null) {
+            return fijado;
+        }
+        return destinoPara(TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * @param soloLectura Si la transacción es de solo lectura
+     * @return Base a la que iría ahora una transacción de ese tipo
+     */
+    public Destino destinoPara(boolean soloLectura) {
+        if (soloLectura && !LecturaPropiaFilter.lecturaEnPrimaria() && replicaUtilizable.getAsBoolean()) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIA;
+    }
+
+    /**
+     * Fija el destino de las conexiones que pida este hilo hasta que se restaure el anterior.
+     *
+     * @param destino Destino a fijar, o null para volver a decidirlo al pedir la conexión
+     * @return Destino fijado previamente (para restaurarlo al terminar una transacción anidada)
+     */
+    public Destino fijarDestino(Destino destino) {
+        Destino anterior = DESTINO_FIJADO.get();
+        if (destino != null) {
+            DESTINO_FIJADO.set(destino);
+        } else {
+            DESTINO_FIJADO.remove();
+        }
+        return anterior;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    public void setReplicaUtilizable(BooleanSupplier replicaUtilizable) {
+        this.replicaUtilizable = replicaUtilizable;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        // Los pools no son beans propios: se cierran junto con el enrutador
+        if (primaria instanceof Closeable closeable) {
+            closeable.close();
+        }
+        if (replica instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ejemplo.microservicio_venta.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Lectura de lo propio (read-your-writes) con réplica de lectura.
+ *
+ * Cada escritura (POST, PUT, PATCH o DELETE) devuelve al cliente el instante en que se hizo, en la
+ * cookie {@value #COOKIE_ULTIMA_ESCRITURA} y en el encabezado {@value #ENCABEZADO_ULTIMA_ESCRITURA}.
+ * Mientras el cliente reenvíe esa marca (la cookie viaja sola; el encabezado debe copiarlo el cliente)
+ * y no haya pasado la ventana configurada, sus lecturas van a la primaria, para que no vea datos
+ * previos a su propio cambio mientras la réplica se pone al día.
+ *
+ * La marca la guarda el cliente, no cada instancia: vale igual con varias instancias detrás de un
+ * balanceador, sin identificar al cliente por su IP. Se compara con el reloj de la instancia que
+ * atiende la lectura, por lo que los relojes deben estar sincronizados (NTP) con un desvío muy
+ * inferior a la ventana. Un cliente que no reenvía la marca lee de la réplica aunque acabe de escribir.
+ *
+ * Los POST que solo consultan (p.ej. {@code /api/ventas/lookup}, que recibe los ids en el cuerpo) se
+ * declaran como rutas de solo lectura y no generan marca.
+ */
+public class LecturaPropiaFilter extends OncePerRequestFilter {
+
+    public static final String ENCABEZADO_ULTIMA_ESCRITURA = "X-Ultima-Escritura";
+    public static final String COOKIE_ULTIMA_ESCRITURA = "ventas-ultima-escritura";
+
+    private static final Set<String> METODOS_ESCRITURA = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private static final ThreadLocal<Boolean> LECTURA_EN_PRIMARIA = new ThreadLocal<>();
+
+    private final long ventanaMillis;
+    private final Set<String> rutasSoloLectura;
+    private final Clock reloj;
+
+    private final UrlPathHelper rutas = new UrlPathHelper();
+
+    public LecturaPropiaFilter(Duration ventana) {
+        this(ventana, Set.of());
+    }
+
+    /**
+     * @param ventana Tiempo durante el que las lecturas siguen a la escritura en la primaria
+     * @param rutasSoloLectura Rutas (sin el context path) que no cuentan como escritura aunque
+     *                         usen un método de escritura
+     */
+    public LecturaPropiaFilter(Duration ventana, Set<String> rutasSoloLectura) {
+        this(ventana, rutasSoloLectura, Clock.systemUTC());
+    }
+
+    LecturaPropiaFilter(Duration ventana, Set<String> rutasSoloLectura, Clock reloj) {
+        this.ventanaMillis = ventana.toMillis();
+        this.rutasSoloLectura = Set.copyOf(rutasSoloLectura);
+        this.reloj = reloj;
+    }
+
+    /**
+     * @return true si la petición en curso debe leer de la primaria.
+     */
+    public static boolean lecturaEnPrimaria() {
+        return Boolean.TRUE.equals(LECTURA_EN_PRIMARIA.get());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // La marca se envía antes de atender la petición: al terminar, la respuesta ya puede estar
+        // confirmada. Una escritura que falla solo cuesta unas lecturas de más en la primaria.
+        if (METODOS_ESCRITURA.contains(request.getMethod())
+                && !rutasSoloLectura.contains(rutas.getPathWithinApplication(request))) {
+            marcarEscritura(request, response);
+        }
+        LECTURA_EN_PRIMARIA.set(escrituraReciente(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LECTURA_EN_PRIMARIA.remove();
+        }
+    }
+
+    private void marcarEscritura(HttpServletRequest request, HttpServletResponse response) {
+        String marca = String.valueOf(reloj.millis());
+        response.setHeader(ENCABEZADO_ULTIMA_ESCRITURA, marca);
+
+        Cookie cookie = new Cookie(COOKIE_ULTIMA_ESCRITURA, marca);
+        cookie.setPath(request.getContextPath() + "/api");
+        cookie.setMaxAge((int) Math.max(1, Duration.ofMillis(ventanaMillis).toSeconds()));
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+
+    boolean escrituraReciente(HttpServletRequest request) {
+        String marca = request.getHeader(ENCABEZADO_ULTIMA_ESCRITURA);
+        if (marca == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE_ULTIMA_ESCRITURA.equals(cookie.getName())) {
+                    marca = cookie.getValue();
+                }
+            }
+        }
+        if (marca == null) {
+            return false;
+        }
+        try {
+            // Una marca "del futuro" más allá de la ventana no se acepta: no puede fijar la primaria indefinidamente
+            long antiguedad = reloj.millis() - Long.parseLong(marca.trim());
+            return Math.abs(antiguedad) < ventanaMillis;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ejemplo.microservicio_venta.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite de concurrencia adaptativo (AIMD) para un grupo de endpoints.
+ *
+ * Cada respuesta por debajo de la latencia objetivo sube el límite en 1/límite (crece de a
+ * una unidad por "ventana" completa); una respuesta más lenta lo reduce un 10%, como máximo
+ * una vez por intervalo de latencia objetivo para no desplomarlo ante una ráfaga.
+ * El límite siempre queda entre el mínimo y el máximo configurados.
+ */
+public class LimitadorAdaptativo {
+
+    private static final double FACTOR_REDUCCION = 0.9;
+
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaObjetivoNanos;
+
+    private double limite;
+    private int enCurso;
+    private long ultimaReduccionNanos;
+
+    private final AtomicLong rechazos = new AtomicLong();
+
+    public LimitadorAdaptativo(AdmisionProperties.Grupo grupo) {
+        this.minimo = Math.max(1, grupo.getMinConcurrencia());
+        this.maximo = Math.max(minimo, grupo.getMaxConcurrencia());
+        this.latenciaObjetivoNanos = grupo.getLatenciaObjetivo().toNanos();
+        this.limite = Math.max(minimo, Math.min(maximo, grupo.getConcurrenciaInicial()));
+        this.ultimaReduccionNanos = System.nanoTime() - latenciaObjetivoNanos;
+    }
+
+    /**
+     * Intenta admitir una petición.
+     * @return true si hay capacidad (debe llamarse luego a {@link #liberar}); false si se rechaza.
+     */
+    public synchronized boolean intentarAdquirir() {
+        if (enCurso >= (int) limite) {
+            rechazos.incrementAndGet();
+            return false;
+        }
+        enCurso++;
+        return true;
+    }
+
+    /**
+     * Libera una petición admitida y ajusta el límite según su latencia.
+     * @param latenciaNanos Duración de la petición
+     */
+    public synchronized void liberar(long latenciaNanos) {
+        boolean limiteEnUso = enCurso >= (int) limite;
+        enCurso--;
+
+        long ahora = System.nanoTime();
+        if (latenciaNanos > latenciaObjetivoNanos) {
+            if (ahora - ultimaReduccionNanos >= latenciaObjetivoNanos) {
+                limite = Math.max(minimo, limite * FACTOR_REDUCCION);
+                ultimaReduccionNanos = ahora;
+            }
+        } else if (limiteEnUso) {
+            // Solo crece si el límite actual realmente se estaba alcanzando
+            limite = Math.min(maximo, limite + 1.0 / limite);
+        }
+    }
+
+    public synchronized int getLimite() {
+        return (int) limite;
+    }
+
+    public synchronized int getEnCurso() {
+        return enCurso;
+    }
+
+    public int getMaximo() {
+        return maximo;
+    }
+
+    public long getRechazos() {
+        return rechazos.get();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ejemplo.microservicio_venta.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Mide periódicamente el retraso de la réplica y decide si puede atender lecturas.
+ *
+ * Con {@code ventas.datasource.replica.consulta-lag} vacía no hay medición y la réplica se
+ * considera al día (p.ej. los servicios _low/_medium de Autonomous leen la misma base que _high).
+ * Si el retraso supera {@code max-lag}, o la consulta falla, las lecturas vuelven a la primaria
+ * hasta la siguiente medición correcta.
+ *
+ * Métricas: {@code ventas.replica.lag} (segundos) y {@code ventas.replica.utilizable} (1/0).
+ */
+public class MonitorLagReplica implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorLagReplica.class);
+
+    private final JdbcTemplate replica;
+    private final String consultaLag;
+    private final double maxLagSegundos;
+
+    private volatile boolean utilizable = true;
+    private volatile double lagSegundos;
+
+    public MonitorLagReplica(DataSource replica, String consultaLag, Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.consultaLag = consultaLag;
+        this.maxLagSegundos = maxLag.toMillis() / 1000.0;
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.datasource.replica.intervalo-verificacion:PT10S}")
+    public void verificar() {
+        if (consultaLag == null || consultaLag.isBlank()) {
+            return;
+        }
+        try {
+            Number lag = replica.queryForObject(consultaLag, Number.class);
+            lagSegundos = lag != null ? lag.doubleValue() : 0;
+            actualizar(lagSegundos <= maxLagSegundos, "retraso de " + lagSegundos + " s");
+        } catch (RuntimeException e) {
+            actualizar(false, "error al medir el retraso: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ventas.replica.lag", this, MonitorLagReplica::getLagSegundos)
+                .baseUnit("seconds")
+                .description("Retraso medido de la réplica de lectura")
+                .register(registry);
+        Gauge.builder("ventas.replica.utilizable", this, m -> m.isUtilizable() ? 1 : 0)
+                .description("1 si las lecturas se envían a la réplica")
+                .register(registry);
+    }
+
+    public boolean isUtilizable() {
+        return utilizable;
+    }
+
+    public double getLagSegundos() {
+        return lagSegundos;
+    }
+
+    private void actualizar(boolean nuevoEstado, String motivo) {
+        if (nuevoEstado != utilizable) {
+            log.warn("Réplica de lectura {} ({})", nuevoEstado ? "habilitada" : "deshabilitada", motivo);
+        }
+        utilizable = nuevoEstado;
+    }
+}
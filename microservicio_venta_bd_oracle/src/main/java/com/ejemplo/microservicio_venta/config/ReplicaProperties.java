@@ -0,0 +1,107 @@
+package com.ejemplo.microservicio_venta.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración del pool de lectura ({@code ventas.datasource.replica.*}).
+ *
+ * El pool Hikari de la réplica se ajusta con {@code ventas.datasource.replica.hikari.*},
+ * igual que el de la primaria con {@code spring.datasource.hikari.*}.
+ */
+@ConfigurationProperties(prefix = "ventas.datasource.replica")
+public class ReplicaProperties {
+
+    // Si es false todas las consultas van a spring.datasource (sin enrutamiento)
+    private boolean habilitada = false;
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    // Retraso máximo tolerado: si la réplica va más atrasada, las lecturas vuelven a la primaria
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // Consulta (ejecutada en la réplica) que devuelve el retraso en segundos; vacía = sin medición
+    private String consultaLag;
+
+    // Cada cuánto se mide el retraso (formato ISO-8601)
+    private Duration intervaloVerificacion = Duration.ofSeconds(10);
+
+    // Tras una escritura, las lecturas del mismo cliente van a la primaria durante este tiempo
+    private Duration ventanaLecturaPropia = Duration.ofSeconds(5);
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public String getConsultaLag() {
+        return consultaLag;
+    }
+
+    public void setConsultaLag(String consultaLag) {
+        this.consultaLag = consultaLag;
+    }
+
+    public Duration getIntervaloVerificacion() {
+        return intervaloVerificacion;
+    }
+
+    public void setIntervaloVerificacion(Duration intervaloVerificacion) {
+        this.intervaloVerificacion = intervaloVerificacion;
+    }
+
+    public Duration getVentanaLecturaPropia() {
+        return ventanaLecturaPropia;
+    }
+
+    public void setVentanaLecturaPropia(Duration ventanaLecturaPropia) {
+        this.ventanaLecturaPropia = ventanaLecturaPropia;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ejemplo.microservicio_venta.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Set;
+
+/**
+ * Enrutamiento lectura/escritura entre la base primaria y una réplica de lectura.
+ *
+ * Se activa con {@code ventas.datasource.replica.habilitada=true}. La primaria usa
+ * {@code spring.datasource.*} y la réplica {@code ventas.datasource.replica.*}; en Autonomous,
+ * por ejemplo, {@code bdy2201_high} para escrituras y {@code bdy2201_low} para lecturas.
+ * Los métodos {@code @Transactional(readOnly = true)} de los servicios leen de la réplica.
+ *
+ * Requiere {@code spring.jpa.open-in-view=false}: con la sesión abierta durante toda la petición,
+ * Hibernate conserva la primera conexión física que obtuvo, y una escritura posterior a una
+ * lectura en la misma petición saldría por la conexión de la réplica. Sin OSIV, cada transacción
+ * usa su propia sesión y conexión, y los servicios devuelven las ventas con sus ítems ya cargados.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "ventas.datasource.replica.habilitada", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public LecturaEscrituraRoutingDataSource enrutadorDataSource(DataSourceProperties primaria,
+                                                                ReplicaProperties replica,
+                                                                Environment environment) {
+        HikariDataSource poolPrimaria = primaria.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurarPool(poolPrimaria, environment, "spring.datasource.hikari", "primaria");
+
+        HikariDataSource poolReplica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .driverClassName(replica.getDriverClassName() != null
+                        ? replica.getDriverClassName()
+                        : primaria.determineDriverClassName())
+                .build();
+        configurarPool(poolReplica, environment, "ventas.datasource.replica.hikari", "replica");
+
+        return new LecturaEscrituraRoutingDataSource(poolPrimaria, poolReplica);
+    }
+
+    @Bean
+    public MonitorLagReplica monitorLagReplica(ReplicaProperties replica, LecturaEscrituraRoutingDataSource enrutador) {
+        MonitorLagReplica monitor = new MonitorLagReplica(enrutador.getReplica(), replica.getConsultaLag(), replica.getMaxLag());
+        enrutador.setReplicaUtilizable(monitor::isUtilizable);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(LecturaEscrituraRoutingDataSource enrutador) {
+        return new LazyConnectionDataSourceProxy(enrutador);
+    }
+
+    // Reemplaza al JpaTransactionManager de Spring Boot para usar LecturaEscrituraJpaDialect
+    // (el gestor toma el dialecto de la fábrica de EntityManager al inicializarse)
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    LecturaEscrituraRoutingDataSource enrutador,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        LecturaEscrituraJpaDialect dialecto = new LecturaEscrituraJpaDialect(enrutador);
+        JpaTransactionManager transactionManager = new JpaTransactionManager() {
+            @Override
+            public void afterPropertiesSet() {
+                super.afterPropertiesSet();
+                setJpaDialect(dialecto);
+            }
+        };
+        transactionManager.setEntityManagerFactory(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // POST /api/ventas/lookup solo consulta: no debe mandar a la primaria las lecturas siguientes
+    @Bean
+    public LecturaPropiaFilter lecturaPropiaFilter(ReplicaProperties replica) {
+        return new LecturaPropiaFilter(replica.getVentanaLecturaPropia(), Set.of("/api/ventas/lookup"));
+    }
+
+    @Bean
+    public FilterRegistrationBean<LecturaPropiaFilter> lecturaPropiaFilterRegistration(LecturaPropiaFilter filter) {
+        FilterRegistrationBean<LecturaPropiaFilter> registro = new FilterRegistrationBean<>(filter);
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+
+    // Aplica spring.datasource.hikari.* / ventas.datasource.replica.hikari.* al pool
+    private static void configurarPool(HikariDataSource pool, Environment environment, String prefijo, String nombre) {
+        pool.setPoolName("ventas-" + nombre);
+        Binder.get(environment).bind(prefijo, Bindable.ofInstance(pool));
+    }
+}
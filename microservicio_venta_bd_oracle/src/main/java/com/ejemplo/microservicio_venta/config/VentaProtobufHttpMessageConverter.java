@@ -0,0 +1,161 @@
+package com.ejemplo.microservicio_venta.config;
+
+import com.ejemplo.microservicio_venta.dto.EliminacionResultadoDTO;
+import com.ejemplo.microservicio_venta.dto.VentaDTO;
+import com.ejemplo.microservicio_venta.dto.VentaLoteDTO;
+import com.ejemplo.microservicio_venta.dto.VentaUpdateDTO;
+import com.ejemplo.microservicio_venta.model.Venta;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convertidor HTTP para {@code application/x-protobuf} basado en el esquema {@code proto/venta.proto}.
+ *
+ * Usa Jackson (jackson-dataformat-protobuf), por lo que las clases del modelo y los DTOs se
+ * serializan directamente, sin código generado. Los cuerpos que no son un mensaje (listas de
+ * ventas, listas de ids y montos de ganancias) se envuelven en {@code VentaLista}, {@code VentaIds}
+ * y {@code Ganancias}.
+ */
+public class VentaProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final String ESQUEMA = "proto/venta.proto";
+    private static final String VENTA_LISTA = "VentaLista";
+    private static final String VENTA_IDS = "VentaIds";
+    private static final String GANANCIAS = "Ganancias";
+
+    // Mensaje envoltorio de una colección -> su campo repetido
+    private static final Map<String, String> CAMPOS_LISTA = Map.of(VENTA_LISTA, "ventas", VENTA_IDS, "ids");
+
+    // Tipo Java -> mensaje del esquema
+    private static final Map<Class<?>, String> MENSAJES = new LinkedHashMap<>();
+
+    static {
+        MENSAJES.put(Venta.class, "Venta");
+        MENSAJES.put(VentaDTO.class, "VentaDTO");
+        MENSAJES.put(VentaUpdateDTO.class, "VentaUpdateDTO");
+        MENSAJES.put(VentaLoteDTO.class, "VentaLoteDTO");
+        MENSAJES.put(EliminacionResultadoDTO.class, "EliminacionResultadoDTO");
+        MENSAJES.put(BigDecimal.class, GANANCIAS);
+    }
+
+    private final ObjectMapper mapper;
+    private final NativeProtobufSchema esquema;
+
+    /**
+     * @param mapper ObjectMapper creado sobre una {@code ProtobufFactory}
+     */
+    public VentaProtobufHttpMessageConverter(ObjectMapper mapper) {
+        super(APPLICATION_PROTOBUF);
+        this.mapper = mapper;
+        try {
+            this.esquema = ProtobufSchemaLoader.std.loadNative(new ClassPathResource(ESQUEMA).getURL());
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo cargar el esquema " + ESQUEMA, e);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return mensaje(clazz) != null;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // Para colecciones el tipo de elemento se valida en canWrite(Type, Class, MediaType)
+        return Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return mensaje(type) != null && !GANANCIAS.equals(mensaje(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return mensaje(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        String nombre = mensaje(type);
+        if (nombre == null) {
+            throw new HttpMessageNotReadableException("Tipo no soportado en Protobuf: " + type, inputMessage);
+        }
+        // Se lee primero como árbol: el parser Protobuf no avanza bien al omitir propiedades de
+        // solo lectura (p.ej. ItemVenta.subtotal) al final de un mensaje anidado
+        JsonNode arbol = mapper.reader()
+                .with(esquema.forType(nombre))
+                .readTree(inputMessage.getBody());
+        String campo = CAMPOS_LISTA.get(nombre);
+        if (campo != null) {
+            // Las listas viajan envueltas (p.ej. VentaLista { repeated Venta ventas }); vacía si no hay elementos
+            arbol = arbol.has(campo) ? arbol.get(campo) : mapper.createArrayNode();
+        }
+        return mapper.treeToValue(arbol, mapper.constructType(type));
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        String nombre = mensaje(type != null ? type : object.getClass());
+        if (nombre == null) {
+            nombre = mensaje(object.getClass());
+        }
+        Object cuerpo = switch (nombre) {
+            case VENTA_LISTA, VENTA_IDS -> Map.of(CAMPOS_LISTA.get(nombre), object);
+            case GANANCIAS -> Map.of("total", object);
+            default -> object;
+        };
+        mapper.writer(esquema.forType(nombre)).writeValue(outputMessage.getBody(), cuerpo);
+    }
+
+    /**
+     * Resuelve el mensaje del esquema para un tipo Java, o null si no está soportado.
+     * Acepta subclases (p.ej. proxies de Hibernate), colecciones de {@link Venta} y de ids.
+     */
+    static String mensaje(Type type) {
+        if (type instanceof Class<?> clazz) {
+            for (Map.Entry<Class<?>, String> entrada : MENSAJES.entrySet()) {
+                if (entrada.getKey().isAssignableFrom(clazz)) {
+                    return entrada.getValue();
+                }
+            }
+            return null;
+        }
+        if (type instanceof ParameterizedType parametrizado
+                && parametrizado.getRawType() instanceof Class<?> raw
+                && Collection.class.isAssignableFrom(raw)
+                && parametrizado.getActualTypeArguments()[0] instanceof Class<?> elemento) {
+            if (Venta.class.isAssignableFrom(elemento)) {
+                return VENTA_LISTA;
+            }
+            if (Long.class.equals(elemento)) {
+                return VENTA_IDS;
+            }
+        }
+        return null;
+    }
+}
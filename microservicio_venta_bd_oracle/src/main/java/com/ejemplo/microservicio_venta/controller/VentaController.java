@@ -1,15 +1,22 @@
 package com.ejemplo.microservicio_venta.controller;
 
+import com.ejemplo.microservicio_venta.config.GrupoAdmision;
 import com.ejemplo.microservicio_venta.mapper.VentaMapper;
+import com.ejemplo.microservicio_venta.dto.EliminacionResultadoDTO;
 import com.ejemplo.microservicio_venta.dto.VentaDTO;
+import com.ejemplo.microservicio_venta.dto.VentaLoteDTO;
 import com.ejemplo.microservicio_venta.dto.VentaUpdateDTO;
 import com.ejemplo.microservicio_venta.model.Venta;
 import com.ejemplo.microservicio_venta.service.VentaService;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,11 +28,21 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
  * Controlador REST para gestionar las operaciones CRUD de Venta.
  * 
  * Utiliza inyección de dependencias para obtener los servicios y mappers necesarios.
+ * Los endpoints pesados se marcan con {@link GrupoAdmision#REPORTES} para que su límite de
+ * concurrencia sea independiente del de las operaciones CRUD.
  */
 @RestController
 @RequestMapping("/api/ventas")
 public class VentaController {
 
+    // Paginación de la búsqueda por producto
+    static final int TAMANO_PAGINA_BUSQUEDA = 50;
+    static final int MAX_TAMANO_PAGINA_BUSQUEDA = 500;
+    static final String ENCABEZADO_HAY_MAS = "X-Hay-Mas";
+
+    // Máximo de ids por consulta múltiple (el servicio los resuelve en lotes IN de hasta 1000)
+    static final int MAX_IDS_POR_CONSULTA = 5000;
+
     // Servicio para lógica de negocio relacionada a ventas
     private final VentaService ventaService;
 
@@ -57,12 +74,81 @@ public class VentaController {
      * Obtener todas las ventas.
      * @return Lista de ventas con código HTTP 200
      */
+    @GrupoAdmision(GrupoAdmision.REPORTES)
     @GetMapping
     public ResponseEntity<List<Venta>> listarVentas() {
         List<Venta> ventas = ventaService.findAll();
         return ResponseEntity.ok(ventas);
     }
 
+    /**
+     * Buscar ventas que incluyan un producto.
+     * Cada término se compara por token o prefijo contra el nombre de los ítems
+     * (p.ej. "lap" encuentra "Laptop Gamer"); con varios términos deben coincidir todos.
+     * Los resultados se paginan en orden de id. El encabezado {@value #ENCABEZADO_HAY_MAS} indica
+     * si existe una página siguiente; una página puede traer menos de {@code tamano} ventas sin
+     * ser la última (ventas borradas o aún no replicadas al momento de cargarlas).
+     * @param producto Texto a buscar en el nombre de producto
+     * @param desde Fecha inicial (inclusive, opcional)
+     * @param hasta Fecha final (inclusive, opcional)
+     * @param pagina Número de página, desde 0
+     * @param tamano Ventas por página (máximo {@value #MAX_TAMANO_PAGINA_BUSQUEDA})
+     * @return Ventas encontradas con código HTTP 200, o 400 si la paginación es inválida
+     */
+    @GrupoAdmision(GrupoAdmision.REPORTES)
+    @GetMapping("/buscar")
+    public ResponseEntity<List<Venta>> buscarPorProducto(
+        @RequestParam("producto") String producto,
+        @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+        @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+        @RequestParam(value = "pagina", defaultValue = "0") int pagina,
+        @RequestParam(value = "tamano", defaultValue = "" + TAMANO_PAGINA_BUSQUEDA) int tamano) {
+
+        if (pagina < 0 || tamano < 1 || tamano > MAX_TAMANO_PAGINA_BUSQUEDA) {
+            return ResponseEntity.badRequest().build();
+        }
+        Slice<Venta> ventas = ventaService.buscarPorProducto(
+            producto,
+            desde != null ? desde.atStartOfDay() : null,
+            hasta != null ? hasta.atTime(LocalTime.MAX) : null,
+            pagina,
+            tamano);
+        return ResponseEntity.ok()
+            .header(ENCABEZADO_HAY_MAS, String.valueOf(ventas.hasNext()))
+            .body(ventas.getContent());
+    }
+
+    /**
+     * Obtener varias ventas por ID en una sola petición (p.ej. ?ids=3,1,2).
+     * Hasta {@value #MAX_IDS_POR_CONSULTA} ids es una consulta pesada: se admite con los reportes.
+     * @param ids Identificadores de las ventas (máximo {@value #MAX_IDS_POR_CONSULTA})
+     * @return Ventas con sus ítems en el orden pedido y los ids no encontrados, o 400 si la lista es inválida
+     */
+    @GrupoAdmision(GrupoAdmision.REPORTES)
+    @GetMapping(params = "ids")
+    public ResponseEntity<VentaLoteDTO> obtenerVentasPorIds(@RequestParam("ids") List<Long> ids) {
+        return obtenerLote(ids);
+    }
+
+    /**
+     * Obtener varias ventas por ID, recibiendo los ids en el cuerpo (para listas que no caben en la URL).
+     * Aunque es un POST, solo consulta: no cuenta como escritura para la lectura de lo propio.
+     * @param ids Identificadores de las ventas (máximo {@value #MAX_IDS_POR_CONSULTA})
+     * @return Ventas con sus ítems en el orden pedido y los ids no encontrados, o 400 si la lista es inválida
+     */
+    @GrupoAdmision(GrupoAdmision.REPORTES)
+    @PostMapping("/lookup")
+    public ResponseEntity<VentaLoteDTO> buscarVentasPorIds(@RequestBody List<Long> ids) {
+        return obtenerLote(ids);
+    }
+
+    private ResponseEntity<VentaLoteDTO> obtenerLote(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_IDS_POR_CONSULTA) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ventaService.findAllByIds(ids));
+    }
+
     /**
      * Obtener una venta por su ID.
      * @param id Identificador de la venta
@@ -86,7 +172,7 @@ public class VentaController {
         @PathVariable Long id,
         @Valid @RequestBody VentaUpdateDTO dto) {
 
-        Optional<Venta> ventaOpt = ventaService.findById(id);
+        Optional<Venta> ventaOpt = ventaService.findByIdParaActualizar(id);
         if (ventaOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -112,22 +198,58 @@ public class VentaController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminarVenta(@PathVariable Long id) {
-        Optional<Venta> ventaOpt = ventaService.findById(id);
-        if (ventaOpt.isEmpty()) {
+        // Borrado directo por conjunto: si no se eliminó ninguna fila, la venta no existía
+        EliminacionResultadoDTO resultado = ventaService.eliminarPorIds(List.of(id));
+        if (resultado.getVentasEliminadas() == 0) {
             return ResponseEntity.notFound().build();
         }
-        ventaService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Eliminar varias ventas por ID en una sola operación.
+     * @param ids Identificadores de las ventas (p.ej. ?ids=1,2,3)
+     * @return Filas eliminadas y rendimiento de la operación
+     */
+    @GrupoAdmision(GrupoAdmision.REPORTES)
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<EliminacionResultadoDTO> eliminarVentas(@RequestParam("ids") List<Long> ids) {
+        return ResponseEntity.ok(ventaService.eliminarPorIds(ids));
+    }
+
+    /**
+     * Eliminar todas las ventas de un rango de fechas.
+     * @param desde Fecha inicial (inclusive)
+     * @param hasta Fecha final (inclusive)
+     * @return Filas eliminadas y rendimiento de la operación, o 400 si el rango es inválido
+     */
+    @GrupoAdmision(GrupoAdmision.REPORTES)
+    @DeleteMapping(params = {"desde", "hasta"})
+    public ResponseEntity<EliminacionResultadoDTO> eliminarVentasPorRango(
+        @RequestParam("desde") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+        @RequestParam("hasta") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+        if (hasta.isBefore(desde)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ventaService.eliminarPorRango(desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay()));
+    }
+
     /**
      * Calcular ganancias según un tipo dado.
      * @param tipo Tipo de ganancia a calcular
+     * @param fecha Fecha dentro del periodo a calcular (opcional, por defecto hoy)
      * @return Ganancias calculadas
      */
+    @GrupoAdmision(GrupoAdmision.REPORTES)
     @GetMapping("/ganancias")
-    public ResponseEntity<BigDecimal> calcularGanancias(@RequestParam("tipo") String tipo) {
-        BigDecimal ganancias = ventaService.calcularGanancias(tipo);
+    public ResponseEntity<BigDecimal> calcularGanancias(
+        @RequestParam("tipo") String tipo,
+        @RequestParam(value = "fecha", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+
+        BigDecimal ganancias = fecha != null
+            ? ventaService.calcularGanancias(tipo, fecha)
+            : ventaService.calcularGanancias(tipo);
         return ResponseEntity.ok(ganancias);
     }
 }
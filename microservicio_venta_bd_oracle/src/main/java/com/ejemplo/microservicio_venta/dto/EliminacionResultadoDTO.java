@@ -0,0 +1,56 @@
+package com.ejemplo.microservicio_venta.dto;
+
+/**
+ * Resultado de una eliminación masiva de ventas (por lista de ids, por rango o por retención).
+ * Informa las filas borradas en cada tabla y el rendimiento obtenido.
+ */
+public class EliminacionResultadoDTO {
+
+    private int ventasEliminadas;
+    private int itemsEliminados;
+    private long duracionMs;
+
+    public EliminacionResultadoDTO() {
+    }
+
+    public EliminacionResultadoDTO(int ventasEliminadas, int itemsEliminados, long duracionMs) {
+        this.ventasEliminadas = ventasEliminadas;
+        this.itemsEliminados = itemsEliminados;
+        this.duracionMs = duracionMs;
+    }
+
+    // Getters y setters
+
+    public int getVentasEliminadas() {
+        return ventasEliminadas;
+    }
+
+    public void setVentasEliminadas(int ventasEliminadas) {
+        this.ventasEliminadas = ventasEliminadas;
+    }
+
+    public int getItemsEliminados() {
+        return itemsEliminados;
+    }
+
+    public void setItemsEliminados(int itemsEliminados) {
+        this.itemsEliminados = itemsEliminados;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    /**
+     * Filas borradas por segundo (ventas + ítems).
+     * @return tasa de borrado, o el total de filas si la operación tomó menos de 1 ms.
+     */
+    public double getFilasPorSegundo() {
+        int filas = ventasEliminadas + itemsEliminados;
+        return duracionMs == 0 ? filas : filas * 1000.0 / duracionMs;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ejemplo.microservicio_venta.dto;
+
+import com.ejemplo.microservicio_venta.model.Venta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Respuesta de la consulta de varias ventas por id.
+ * Las ventas vienen en el orden en que se pidieron; los ids que no existen se informan aparte.
+ */
+public class VentaLoteDTO {
+
+    private List<Venta> ventas = new ArrayList<>();
+    private List<Long> noEncontradas = new ArrayList<>();
+
+    public VentaLoteDTO() {
+    }
+
+    public VentaLoteDTO(List<Venta> ventas, List<Long> noEncontradas) {
+        this.ventas = ventas;
+        this.noEncontradas = noEncontradas;
+    }
+
+    // Getters y setters
+
+    public List<Venta> getVentas() {
+        return ventas;
+    }
+
+    public void setVentas(List<Venta> ventas) {
+        this.ventas = ventas;
+    }
+
+    public List<Long> getNoEncontradas() {
+        return noEncontradas;
+    }
+
+    public void setNoEncontradas(List<Long> noEncontradas) {
+        this.noEncontradas = noEncontradas;
+    }
+}
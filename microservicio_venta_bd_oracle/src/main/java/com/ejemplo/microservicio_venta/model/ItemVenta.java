@@ -5,10 +5,16 @@ import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 @Entity
-@Table(name = "ITEM_VENTA")
+// Hibernate no indexa la clave foránea: sin este índice cada borrado de ítems por venta recorre la tabla
+@Table(name = "ITEM_VENTA", indexes = @Index(name = "IDX_ITEM_VENTA_VENTA", columnList = "venta_id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item-venta")
 public class ItemVenta {
 
     @Id
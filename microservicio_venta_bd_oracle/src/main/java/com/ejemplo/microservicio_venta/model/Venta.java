@@ -7,9 +7,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @Entity
+// Índice por fecha (y id, para recorrer los lotes de borrado en orden sin ordenar en memoria)
+@Table(indexes = @Index(name = "IDX_VENTA_FECHA_ID", columnList = "fecha_venta, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "venta")
 public class Venta {
 
     @Id
@@ -17,12 +24,14 @@ public class Venta {
     private Long id;
 
     @NotNull
+    @Column(name = "fecha_venta")
     private LocalDateTime fechaVenta;
 
     @NotNull
     private BigDecimal total;
 
     @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "venta-items")
     @JsonManagedReference
     private List<ItemVenta> items;
 
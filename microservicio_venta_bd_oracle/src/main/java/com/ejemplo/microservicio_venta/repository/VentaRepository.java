@@ -1,13 +1,76 @@
 package com.ejemplo.microservicio_venta.repository;
 
 import com.ejemplo.microservicio_venta.model.Venta;
+import com.ejemplo.microservicio_venta.service.VentaProductoIndex;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
+
+    // Espacio de consulta de los borrados masivos: no coincide con ninguna tabla de entidad
+    String ESPACIO_BORRADO_MASIVO = "ventas-borrado-masivo";
+
     List<Venta> findByFechaVentaBetween(LocalDateTime inicio, LocalDateTime fin);
+
+    // Fecha guardada de una venta (antes de modificarla), para invalidar las ganancias de su periodo.
+    // Transacción de escritura: se lee de la primaria aunque haya réplica.
+    @Transactional
+    @Query("select v.fechaVenta from Venta v where v.id = :id")
+    Optional<LocalDateTime> findFechaVentaById(@Param("id") Long id);
+
+    // --- Eliminación masiva: DELETE por conjuntos, sin cargar entidades ---
+
+    // Ids de ventas en [desde, hasta), de a una página (lote) por llamada.
+    // El orden (fechaVenta, id) coincide con IDX_VENTA_FECHA_ID: cada lote es un recorrido
+    // acotado del índice, sin ordenar todas las filas restantes del rango.
+    @Query("select v.id from Venta v where v.fechaVenta >= :desde and v.fechaVenta < :hasta order by v.fechaVenta, v.id")
+    List<Long> findIdsEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta, Pageable lote);
+
+    // Ids de ventas anteriores a la fecha límite (para la purga por retención)
+    @Query("select v.id from Venta v where v.fechaVenta < :limite order by v.fechaVenta, v.id")
+    List<Long> findIdsAnteriores(@Param("limite") LocalDateTime limite, Pageable lote);
+
+    // Ids de los ítems de un lote de ventas (para retirarlos uno a uno de la caché tras borrarlos)
+    @Query("select i.id from ItemVenta i where i.venta.id in :ventaIds")
+    List<Long> findItemIdsByVentaIdIn(@Param("ventaIds") Collection<Long> ventaIds);
+
+    // Fechas de un lote de ventas (para invalidar las ganancias de sus periodos tras borrarlas)
+    @Query("select distinct v.fechaVenta from Venta v where v.id in :ids")
+    List<LocalDateTime> findFechasVentaByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Borrados por conjunto en SQL nativo, sincronizados con un espacio de consulta propio:
+    // un DELETE JPQL (o nativo sin espacios) hace que Hibernate vacíe las regiones completas
+    // de Venta e ItemVenta; así solo se retiran de la caché las ventas borradas (ver VentaService).
+    @Modifying
+    @Query(value = "delete from ITEM_VENTA where venta_id in (:ventaIds)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ESPACIO_BORRADO_MASIVO))
+    int deleteItemsByVentaIdIn(@Param("ventaIds") Collection<Long> ventaIds);
+
+    @Modifying
+    @Query(value = "delete from VENTA where id in (:ids)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ESPACIO_BORRADO_MASIVO))
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Entradas del índice de productos construidas directamente en la consulta (sin entidades ni
+    // proxies de proyección), recorridas como cursor: el llamador consume el Stream dentro de una
+    // transacción y lo cierra. El fetch size evita el valor por defecto de Oracle (10 filas por viaje).
+    @Query("select new com.ejemplo.microservicio_venta.service.VentaProductoIndex$Entrada("
+            + "v.id, v.fechaVenta, i.nombreProducto) from ItemVenta i join i.venta v")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<VentaProductoIndex.Entrada> findProductosVendidos();
 }
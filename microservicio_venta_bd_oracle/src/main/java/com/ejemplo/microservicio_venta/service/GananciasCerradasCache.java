@@ -0,0 +1,147 @@
+package com.ejemplo.microservicio_venta.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de las ganancias de periodos ya cerrados, por (tipo, inicio del periodo).
+ *
+ * A diferencia de la caché de consultas de Hibernate, que descarta todos los resultados sobre
+ * VENTA con cada alta, una entrada solo se invalida cuando se borra o modifica una venta con
+ * fecha dentro de su periodo: las ventas nuevas siempre caen en el periodo en curso, que no se
+ * guarda aquí.
+ *
+ * Un total calculado mientras se invalidaba su periodo no se guarda (podría haberse leído antes
+ * del cambio). Las entradas expiran a las 24 h como cota ante cambios hechos fuera del servicio.
+ *
+ * Con réplica de lectura, los totales se calculan en la réplica, que puede ir hasta {@code max-lag}
+ * atrasada: no se guarda un total si desde la última invalidación, o desde el fin del periodo, pasó
+ * menos que ese margen, porque la réplica podría no reflejar aún esos cambios.
+ */
+@Component
+public class GananciasCerradasCache implements MeterBinder {
+
+    static final int MAX_ENTRADAS = 1000;
+    static final Duration EXPIRACION = Duration.ofHours(24);
+
+    // Menos usadas primero: al superar MAX_ENTRADAS se descarta la más antigua
+    private final Map<Periodo, Total> totales = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Periodo, Total> mayor) {
+            return size() > MAX_ENTRADAS;
+        }
+    };
+
+    // Retraso tolerado de la réplica (cero sin réplica): antigüedad mínima de lo que se guarda
+    private final Duration margen;
+
+    // Instante (nanoTime) de la última invalidación: los cálculos que empezaron antes (más el margen)
+    // no se guardan
+    private long ultimaInvalidacion;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    public GananciasCerradasCache(@Value("${ventas.datasource.replica.habilitada:false}") boolean replicaHabilitada,
+                                  @Value("${ventas.datasource.replica.max-lag:5s}") Duration maxLag) {
+        this.margen = replicaHabilitada ? maxLag : Duration.ZERO;
+        this.ultimaInvalidacion = System.nanoTime() - margen.toNanos() - 1;
+    }
+
+    /**
+     * Devuelve el total guardado del periodo o lo calcula y lo guarda.
+     * @param tipo Tipo de periodo (diaria, mensual, anual)
+     * @param inicio Inicio del periodo
+     * @param fin Fin del periodo (ya pasado)
+     * @param calculo Cálculo del total en la base, ejecutado solo si no está guardado
+     * @return Total de ventas del periodo
+     */
+    public BigDecimal obtener(String tipo, LocalDateTime inicio, LocalDateTime fin, Supplier<BigDecimal> calculo) {
+        Periodo periodo = new Periodo(tipo, inicio);
+        long ahora = System.nanoTime();
+        synchronized (this) {
+            Total guardado = totales.get(periodo);
+            if (guardado != null && ahora - guardado.guardadoEn() < EXPIRACION.toNanos()) {
+                aciertos.incrementAndGet();
+                return guardado.valor();
+            }
+        }
+        fallos.incrementAndGet();
+
+        BigDecimal valor = calculo.get();
+        boolean periodoAsentado = fin.isBefore(LocalDateTime.now().minus(margen));
+        synchronized (this) {
+            if (periodoAsentado && ahora - margen.toNanos() - ultimaInvalidacion > 0) {
+                totales.put(periodo, new Total(fin, valor, ahora));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta los periodos que contienen alguna de las fechas (ventas borradas o modificadas).
+     * @param fechas Fechas de venta afectadas
+     */
+    public void invalidar(Collection<LocalDateTime> fechas) {
+        NavigableSet<LocalDateTime> ordenadas = new TreeSet<>();
+        fechas.forEach(fecha -> {
+            if (fecha != null) {
+                ordenadas.add(fecha);
+            }
+        });
+        synchronized (this) {
+            ultimaInvalidacion = System.nanoTime();
+            if (ordenadas.isEmpty()) {
+                return;
+            }
+            totales.entrySet().removeIf(entrada -> {
+                LocalDateTime primera = ordenadas.ceiling(entrada.getKey().inicio());
+                return primera != null && !primera.isAfter(entrada.getValue().fin());
+            });
+        }
+    }
+
+    /**
+     * Descarta todos los periodos guardados.
+     */
+    public synchronized void invalidarTodo() {
+        ultimaInvalidacion = System.nanoTime();
+        totales.clear();
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ventas.ganancias.cerradas.hits", aciertos, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("ventas.ganancias.cerradas.misses", fallos, AtomicLong::get)
+                .register(registry);
+    }
+
+    private record Periodo(String tipo, LocalDateTime inicio) {
+    }
+
+    private record Total(LocalDateTime fin, BigDecimal valor, long guardadoEn) {
+    }
+}
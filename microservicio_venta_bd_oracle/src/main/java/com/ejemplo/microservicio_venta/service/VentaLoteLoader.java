@@ -0,0 +1,114 @@
+package com.ejemplo.microservicio_venta.service;
+
+import com.ejemplo.microservicio_venta.model.Venta;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Carga por lotes de ventas con sus ítems.
+ *
+ * En lugar de un {@code findById} y una carga perezosa de ítems por venta, toma de la caché de
+ * segundo nivel las ventas que ya están ahí y busca las demás con la carga múltiple de Hibernate,
+ * en consultas {@code IN} de a lo sumo {@code ventas.lectura.tamano-lote} elementos (Oracle no
+ * admite más de 1000). Los ítems se inicializan después, también desde la caché o por lotes
+ * ({@code default_batch_fetch_size}), en lugar de un join que la saltaría.
+ */
+@Component
+public class VentaLoteLoader {
+
+    // Oracle no admite más de 1000 elementos en una lista IN
+    private static final int MAX_LOTE_LECTURA = 1000;
+
+    private final EntityManager entityManager;
+
+    // Cantidad de ids por consulta
+    private final int tamanoLote;
+
+    public VentaLoteLoader(EntityManager entityManager,
+                           @Value("${ventas.lectura.tamano-lote:500}") int tamanoLote) {
+        this.entityManager = entityManager;
+        this.tamanoLote = Math.max(1, Math.min(tamanoLote, MAX_LOTE_LECTURA));
+    }
+
+    /**
+     * Carga las ventas pedidas con sus ítems.
+     *
+     * @param ids Identificadores a cargar (se ignoran nulos y repetidos)
+     * @return Ventas encontradas, en el orden en que se pidieron; los ids inexistentes no figuran
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Venta> cargar(Collection<Long> ids) {
+        Set<Long> pedidos = new LinkedHashSet<>(ids);
+        pedidos.remove(null);
+        if (pedidos.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Venta> encontradas = new HashMap<>(pedidos.size() * 2);
+        List<Long> lote = new ArrayList<>(Math.min(tamanoLote, pedidos.size()));
+        for (Long id : pedidos) {
+            lote.add(id);
+            if (lote.size() == tamanoLote) {
+                cargarLote(lote, encontradas);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            cargarLote(lote, encontradas);
+        }
+
+        Map<Long, Venta> ordenadas = new LinkedHashMap<>(encontradas.size() * 2);
+        for (Long id : pedidos) {
+            Venta venta = encontradas.get(id);
+            if (venta != null) {
+                ordenadas.put(id, venta);
+            }
+        }
+        return ordenadas;
+    }
+
+    private void cargarLote(List<Long> lote, Map<Long, Venta> encontradas) {
+        Session session = entityManager.unwrap(Session.class);
+        Cache cache = session.getSessionFactory().getCache();
+
+        // La carga múltiple de Hibernate 6.2 no consulta la caché de segundo nivel: las ventas que
+        // ya están ahí se toman una a una (sin SQL) y solo las demás van a la consulta IN
+        List<Long> pendientes = new ArrayList<>(lote.size());
+        for (Long id : lote) {
+            Venta venta = cache.containsEntity(Venta.class, id) ? session.get(Venta.class, id) : null;
+            if (venta != null) {
+                encontradas.put(id, venta);
+            } else {
+                pendientes.add(id);
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            List<Venta> ventas = session.byMultipleIds(Venta.class)
+                    .withBatchSize(tamanoLote)
+                    .enableOrderedReturn(false)
+                    .multiLoad(pendientes);
+            ventas.forEach(venta -> encontradas.put(venta.getId(), venta));
+        }
+
+        for (Long id : lote) {
+            Venta venta = encontradas.get(id);
+            if (venta != null) {
+                Hibernate.initialize(venta.getItems());
+            }
+        }
+    }
+}
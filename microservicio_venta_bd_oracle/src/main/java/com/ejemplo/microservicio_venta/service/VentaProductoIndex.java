@@ -0,0 +1,295 @@
+package com.ejemplo.microservicio_venta.service;
+
+import com.ejemplo.microservicio_venta.model.ItemVenta;
+import com.ejemplo.microservicio_venta.model.Venta;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Índice invertido en memoria sobre el nombre de producto de los {@link ItemVenta}.
+ *
+ * Cada token normalizado (minúsculas, sin tildes) apunta a un bitmap compacto con los ids
+ * de las ventas que lo contienen. Se reconstruye al iniciar la aplicación, antes de que el
+ * servidor web acepte peticiones, y se mantiene al día en cada alta, modificación o
+ * eliminación de ventas, de modo que las búsquedas por producto no necesitan escanear
+ * ITEM_VENTA con LIKE.
+ */
+@Component
+public class VentaProductoIndex {
+
+    // Token -> ids de venta que lo contienen (ordenado para resolver búsquedas por prefijo)
+    private NavigableMap<String, Roaring64NavigableMap> ventasPorToken = new TreeMap<>();
+
+    // Índice inverso para poder retirar una venta sin recorrer todos los tokens
+    private Map<Long, Set<String>> tokensPorVenta = new HashMap<>();
+
+    // Fecha de cada venta indexada, para filtrar por rango sin consultar la base
+    private Map<Long, LocalDateTime> fechaPorVenta = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Cambios recibidos durante una reconstrucción en curso (null si no hay ninguna)
+    private List<Cambio> cambiosDuranteReconstruccion;
+
+    /**
+     * Reemplaza por completo el contenido del índice.
+     * El nuevo índice se construye fuera del bloqueo y luego se intercambia; las altas y bajas
+     * que llegan mientras se cargan las entradas se registran y se vuelven a aplicar sobre el
+     * índice nuevo, para que no se pierdan con el intercambio.
+     *
+     * El cargador entrega las entradas de a una al consumidor que recibe, de modo que se
+     * indexan a medida que se leen (p.ej. desde un cursor) sin reunirlas antes en una lista.
+     *
+     * @param cargador Recorre los pares (venta, producto) a indexar y los pasa al consumidor
+     */
+    public synchronized void reconstruir(Consumer<Consumer<Entrada>> cargador) {
+        lock.writeLock().lock();
+        try {
+            cambiosDuranteReconstruccion = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            NavigableMap<String, Roaring64NavigableMap> nuevoPorToken = new TreeMap<>();
+            Map<Long, Set<String>> nuevoPorVenta = new HashMap<>();
+            Map<Long, LocalDateTime> nuevaFechaPorVenta = new HashMap<>();
+
+            cargador.accept(entrada -> {
+                agregar(nuevoPorToken, nuevoPorVenta, entrada.ventaId(), entrada.nombreProducto());
+                if (entrada.fechaVenta() != null) {
+                    nuevaFechaPorVenta.put(entrada.ventaId(), entrada.fechaVenta());
+                }
+            });
+            nuevoPorToken.values().forEach(Roaring64NavigableMap::runOptimize);
+
+            lock.writeLock().lock();
+            try {
+                ventasPorToken = nuevoPorToken;
+                tokensPorVenta = nuevoPorVenta;
+                fechaPorVenta = nuevaFechaPorVenta;
+                // Reaplicar en orden: cada cambio reemplaza el estado completo de su venta
+                cambiosDuranteReconstruccion.forEach(this::aplicar);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                cambiosDuranteReconstruccion = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Reemplaza por completo el contenido del índice con entradas ya cargadas.
+     * @param entradas Pares (venta, producto) a indexar
+     */
+    public void reconstruir(Collection<Entrada> entradas) {
+        reconstruir(entradas::forEach);
+    }
+
+    /**
+     * Indexa (o reindexa) una venta con sus ítems actuales.
+     * @param venta Venta ya persistida (con id asignado)
+     */
+    public void indexar(Venta venta) {
+        if (venta == null || venta.getId() == null) {
+            return;
+        }
+        List<String> productos = new ArrayList<>();
+        if (venta.getItems() != null) {
+            for (ItemVenta item : venta.getItems()) {
+                productos.add(item.getNombreProducto());
+            }
+        }
+        registrar(new Cambio(venta.getId(), venta.getFechaVenta(), productos));
+    }
+
+    /**
+     * Quita una venta del índice.
+     * @param ventaId Identificador de la venta eliminada
+     */
+    public void remover(Long ventaId) {
+        if (ventaId == null) {
+            return;
+        }
+        registrar(new Cambio(ventaId, null, null));
+    }
+
+    /**
+     * Busca las ventas cuyos ítems contienen todos los términos de la consulta.
+     * Cada término se compara como prefijo de los tokens indexados ("lap" encuentra "Laptop").
+     *
+     * @param consulta Texto libre con uno o más términos
+     * @param desde    Inicio del rango de fechas (inclusive), o null para no acotar
+     * @param hasta    Fin del rango de fechas (inclusive), o null para no acotar
+     * @return Ids de ventas encontradas, en orden ascendente
+     */
+    public List<Long> buscar(String consulta, LocalDateTime desde, LocalDateTime hasta) {
+        return buscar(consulta, desde, hasta, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Igual que {@link #buscar(String, LocalDateTime, LocalDateTime)}, pero devuelve solo una página
+     * de resultados: omite los primeros {@code omitir} ids y corta al llegar a {@code limite}.
+     *
+     * @param omitir Cantidad de resultados a saltar (páginas anteriores)
+     * @param limite Cantidad máxima de ids a devolver
+     * @return Ids de ventas encontradas, en orden ascendente
+     */
+    public List<Long> buscar(String consulta, LocalDateTime desde, LocalDateTime hasta, long omitir, int limite) {
+        List<String> terminos = tokenizar(consulta);
+        if (terminos.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap resultado = null;
+            for (String termino : terminos) {
+                Roaring64NavigableMap coincidencias = new Roaring64NavigableMap();
+                ventasPorToken.subMap(termino, true, termino + Character.MAX_VALUE, true)
+                        .values()
+                        .forEach(coincidencias::or);
+
+                if (resultado == null) {
+                    resultado = coincidencias;
+                } else {
+                    resultado.and(coincidencias);
+                }
+                if (resultado.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Long> ids = new ArrayList<>((int) Math.min(limite, resultado.getLongCardinality()));
+            long omitidos = 0;
+            LongIterator iterador = resultado.getLongIterator();
+            while (iterador.hasNext() && ids.size() < limite) {
+                long id = iterador.next();
+                if (enRango(fechaPorVenta.get(id), desde, hasta) && omitidos++ >= omitir) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza un texto en tokens: minúsculas, sin tildes y separado por cualquier
+     * carácter que no sea letra o dígito.
+     */
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalizado.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // --- Auxiliares (llamar con el bloqueo de escritura tomado) ---
+
+    private void registrar(Cambio cambio) {
+        lock.writeLock().lock();
+        try {
+            aplicar(cambio);
+            if (cambiosDuranteReconstruccion != null) {
+                cambiosDuranteReconstruccion.add(cambio);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void aplicar(Cambio cambio) {
+        retirar(cambio.ventaId());
+        if (cambio.productos() == null) {
+            return;
+        }
+        for (String producto : cambio.productos()) {
+            agregar(ventasPorToken, tokensPorVenta, cambio.ventaId(), producto);
+        }
+        if (cambio.fechaVenta() != null) {
+            fechaPorVenta.put(cambio.ventaId(), cambio.fechaVenta());
+        }
+    }
+
+    private static void agregar(NavigableMap<String, Roaring64NavigableMap> porToken,
+                                Map<Long, Set<String>> porVenta,
+                                Long ventaId, String nombreProducto) {
+        for (String token : tokenizar(nombreProducto)) {
+            porToken.computeIfAbsent(token, t -> new Roaring64NavigableMap()).addLong(ventaId);
+            porVenta.computeIfAbsent(ventaId, id -> new HashSet<>()).add(token);
+        }
+    }
+
+    private void retirar(Long ventaId) {
+        fechaPorVenta.remove(ventaId);
+        Set<String> tokens = tokensPorVenta.remove(ventaId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Roaring64NavigableMap ids = ventasPorToken.get(token);
+            if (ids != null) {
+                ids.removeLong(ventaId);
+                if (ids.isEmpty()) {
+                    ventasPorToken.remove(token);
+                }
+            }
+        }
+    }
+
+    private static boolean enRango(LocalDateTime fecha, LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null && hasta == null) {
+            return true;
+        }
+        if (fecha == null) {
+            return false;
+        }
+        return (desde == null || !fecha.isBefore(desde)) && (hasta == null || !fecha.isAfter(hasta));
+    }
+
+    /**
+     * Par (venta, producto) usado para reconstruir el índice desde la base.
+     */
+    public record Entrada(Long ventaId, LocalDateTime fechaVenta, String nombreProducto) {
+    }
+
+    /**
+     * Alta/modificación (con productos) o baja (productos null) de una venta.
+     */
+    private record Cambio(Long ventaId, LocalDateTime fechaVenta, List<String> productos) {
+    }
+}
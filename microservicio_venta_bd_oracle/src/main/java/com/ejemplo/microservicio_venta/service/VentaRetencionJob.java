@@ -0,0 +1,35 @@
+package com.ejemplo.microservicio_venta.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Tarea programada que purga las ventas más antiguas que el periodo de retención.
+ *
+ * Solo se registra con {@code ventas.retencion.habilitada=true}. El borrado se hace en lotes
+ * por {@link VentaService#purgarAnterioresA}, que informa filas por segundo en el log.
+ */
+@Component
+@ConditionalOnProperty(name = "ventas.retencion.habilitada", havingValue = "true")
+public class VentaRetencionJob {
+
+    private final VentaService ventaService;
+
+    // Días de historial que se conservan (se cuentan desde el inicio del día actual)
+    private final int diasRetencion;
+
+    public VentaRetencionJob(VentaService ventaService,
+                             @Value("${ventas.retencion.dias:1825}") int diasRetencion) {
+        this.ventaService = ventaService;
+        this.diasRetencion = diasRetencion;
+    }
+
+    @Scheduled(cron = "${ventas.retencion.cron:0 0 3 * * *}")
+    public void purgar() {
+        ventaService.purgarAnterioresA(LocalDate.now().minusDays(diasRetencion).atStartOfDay());
+    }
+}
@@ -1,26 +1,97 @@
 package com.ejemplo.microservicio_venta.service;
 
+import com.ejemplo.microservicio_venta.dto.EliminacionResultadoDTO;
+import com.ejemplo.microservicio_venta.dto.VentaLoteDTO;
 import com.ejemplo.microservicio_venta.model.Venta;
 import com.ejemplo.microservicio_venta.model.ItemVenta;
 import com.ejemplo.microservicio_venta.repository.VentaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
-public class VentaService {
+public class VentaService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(VentaService.class);
+
+    // Oracle no admite más de 1000 elementos en una lista IN
+    private static final int MAX_LOTE_ELIMINACION = 1000;
+
+    // Rol de la colección Venta.items en la caché de segundo nivel
+    private static final String ROL_ITEMS = Venta.class.getName() + ".items";
 
     private final VentaRepository ventaRepository;
 
-    public VentaService(VentaRepository ventaRepository) {
+    // Índice invertido en memoria para búsquedas por producto
+    private final VentaProductoIndex productoIndex;
+
+    // Carga por lotes de ventas con sus ítems
+    private final VentaLoteLoader loteLoader;
+
+    // Ganancias de periodos cerrados: se invalidan solo al borrar o modificar ventas de esos periodos
+    private final GananciasCerradasCache gananciasCerradas;
+
+    // Cada lote de una eliminación masiva se confirma en su propia transacción
+    private final TransactionTemplate transactionTemplate;
+
+    // Transacción de solo lectura programática (puede atenderse desde la réplica)
+    private final TransactionTemplate lecturaTemplate;
+
+    // Cantidad de ventas borradas por sentencia/transacción
+    private final int tamanoLoteEliminacion;
+
+    // Caché de segundo nivel: los borrados masivos retiran solo las entradas de las ventas borradas
+    private final Cache cache;
+
+    public VentaService(VentaRepository ventaRepository,
+                        VentaProductoIndex productoIndex,
+                        VentaLoteLoader loteLoader,
+                        GananciasCerradasCache gananciasCerradas,
+                        PlatformTransactionManager transactionManager,
+                        EntityManagerFactory entityManagerFactory,
+                        @Value("${ventas.eliminacion.tamano-lote:500}") int tamanoLoteEliminacion) {
         this.ventaRepository = ventaRepository;
+        this.productoIndex = productoIndex;
+        this.loteLoader = loteLoader;
+        this.gananciasCerradas = gananciasCerradas;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.tamanoLoteEliminacion = Math.max(1, Math.min(tamanoLoteEliminacion, MAX_LOTE_ELIMINACION));
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
     }
 
     // Crear o actualizar una venta
     public Venta save(Venta venta) {
+        // Una modificación saca la venta de su periodo (pasa a la fecha actual): se invalida ese periodo
+        Optional<LocalDateTime> fechaAnterior = venta.getId() != null
+                ? ventaRepository.findFechaVentaById(venta.getId())
+                : Optional.empty();
         venta.setFechaVenta(LocalDateTime.now());
         // Asociar cada ItemVenta a la Venta para mantener la relación bidireccional
         if (venta.getItems() != null) {
@@ -36,50 +107,212 @@ public class VentaService {
 
         venta.setTotal(total);
 
-        return ventaRepository.save(venta);
+        Venta guardada = ventaRepository.save(venta);
+        productoIndex.indexar(guardada);
+        fechaAnterior.ifPresent(fecha -> gananciasCerradas.invalidar(List.of(fecha)));
+        return guardada;
     }
 
-    // Obtener todas las ventas
+    // Obtener todas las ventas (solo lectura: puede atenderse desde la réplica).
+    // Sin open-in-view, los ítems se cargan aquí (por lotes, ver default_batch_fetch_size).
+    @Transactional(readOnly = true)
     public List<Venta> findAll() {
-        return ventaRepository.findAll();
+        List<Venta> ventas = ventaRepository.findAll();
+        ventas.forEach(venta -> Hibernate.initialize(venta.getItems()));
+        return ventas;
     }
 
-    // Buscar venta por id
+    // Buscar venta por id, con sus ítems (solo lectura: puede atenderse desde la réplica)
+    @Transactional(readOnly = true)
     public Optional<Venta> findById(Long id) {
-        return ventaRepository.findById(id);
+        return ventaRepository.findById(id).map(VentaService::conItems);
+    }
+
+    // Buscar venta por id para modificarla: se lee de la primaria y la entidad queda editable
+    // (las entidades cargadas en una transacción de solo lectura no se vuelven a guardar)
+    @Transactional
+    public Optional<Venta> findByIdParaActualizar(Long id) {
+        return ventaRepository.findById(id).map(VentaService::conItems);
+    }
+
+    private static Venta conItems(Venta venta) {
+        Hibernate.initialize(venta.getItems());
+        return venta;
+    }
+
+    // Eliminar varias ventas por id; los ids inexistentes simplemente no cuentan
+    public EliminacionResultadoDTO eliminarPorIds(Collection<Long> ids) {
+        Iterator<List<Long>> lotes = particionar(new ArrayList<>(new LinkedHashSet<>(ids)), tamanoLoteEliminacion);
+        return eliminarEnLotes("Eliminación por ids", () -> lotes.hasNext() ? lotes.next() : List.of());
+    }
+
+    // Eliminar las ventas con fecha en [desde, hasta)
+    public EliminacionResultadoDTO eliminarPorRango(LocalDateTime desde, LocalDateTime hasta) {
+        return eliminarEnLotes("Eliminación por rango " + desde + " - " + hasta,
+                () -> ventaRepository.findIdsEntre(desde, hasta, PageRequest.of(0, tamanoLoteEliminacion)));
+    }
+
+    // Purga por retención: elimina las ventas anteriores a la fecha límite
+    public EliminacionResultadoDTO purgarAnterioresA(LocalDateTime limite) {
+        return eliminarEnLotes("Purga de ventas anteriores a " + limite,
+                () -> ventaRepository.findIdsAnteriores(limite, PageRequest.of(0, tamanoLoteEliminacion)));
+    }
+
+    // Buscar ventas que incluyan un producto (por token o prefijo), opcionalmente en un rango de fechas.
+    // Se devuelve una página de resultados para que un prefijo corto no cargue todas las ventas.
+    // Si hay más páginas lo decide el índice (se le pide un id de más), no la cantidad cargada: una
+    // venta indexada puede no encontrarse al cargarla (borrada entre medio o aún no en la réplica).
+    @Transactional(readOnly = true)
+    public Slice<Venta> buscarPorProducto(String producto, LocalDateTime desde, LocalDateTime hasta,
+                                          int pagina, int tamano) {
+        PageRequest solicitud = PageRequest.of(pagina, tamano);
+        List<Long> ids = productoIndex.buscar(producto, desde, hasta, solicitud.getOffset(), tamano + 1);
+        boolean hayMas = ids.size() > tamano;
+        if (hayMas) {
+            ids = ids.subList(0, tamano);
+        }
+        if (ids.isEmpty()) {
+            return new SliceImpl<>(List.of(), solicitud, false);
+        }
+        // El índice ya devuelve los ids en orden ascendente y el cargador lo respeta
+        return new SliceImpl<>(new ArrayList<>(loteLoader.cargar(ids).values()), solicitud, hayMas);
     }
 
-    // Eliminar venta por id
-    public void deleteById(Long id) {
-        ventaRepository.deleteById(id);
+    // Obtener varias ventas por id (con sus ítems) en pocas consultas, respetando el orden pedido
+    @Transactional(readOnly = true)
+    public VentaLoteDTO findAllByIds(List<Long> ids) {
+        Map<Long, Venta> encontradas = loteLoader.cargar(ids);
+        List<Long> noEncontradas = ids.stream()
+                .filter(id -> id != null && !encontradas.containsKey(id))
+                .distinct()
+                .toList();
+        return new VentaLoteDTO(new ArrayList<>(encontradas.values()), noEncontradas);
     }
 
-    // Calcular ganancias por tipo: diaria, mensual, anual
+    // Construir el índice de productos cuando el contexto ya está listo pero antes de que el
+    // servidor web arranque, para que ninguna búsqueda vea el índice vacío
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconstruirIndiceProductos();
+    }
+
+    // Reconstruir el índice de productos recorriendo un cursor de entradas (sin cargar entidades ni
+    // reunir todas las filas en memoria). Se lee de la primaria (transacción de escritura) para no
+    // arrancar con el retraso de la réplica.
+    public void reconstruirIndiceProductos() {
+        productoIndex.reconstruir(destino -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<VentaProductoIndex.Entrada> entradas = ventaRepository.findProductosVendidos()) {
+                entradas.forEach(destino);
+            }
+        }));
+    }
+
+    // Calcular ganancias por tipo: diaria, mensual, anual (periodo actual)
     public BigDecimal calcularGanancias(String tipo) {
+        return calcularGanancias(tipo, LocalDate.now());
+    }
+
+    // Calcular ganancias por tipo para el periodo que contiene la fecha de referencia.
+    // Se lee en una transacción de solo lectura (puede ir a la réplica). El total de un periodo cerrado
+    // se guarda en GananciasCerradasCache, que no guarda lo que la réplica aún podría no reflejar.
+    public BigDecimal calcularGanancias(String tipo, LocalDate referencia) {
+        String periodo = tipo.toLowerCase();
         LocalDateTime inicio;
         LocalDateTime fin;
-        LocalDateTime ahora = LocalDateTime.now();
 
-        switch (tipo.toLowerCase()) {
+        switch (periodo) {
             case "diaria":
-                inicio = ahora.toLocalDate().atStartOfDay();
+                inicio = referencia.atStartOfDay();
                 fin = inicio.plusDays(1);
                 break;
             case "mensual":
-                inicio = ahora.withDayOfMonth(1).toLocalDate().atStartOfDay();
+                inicio = referencia.withDayOfMonth(1).atStartOfDay();
                 fin = inicio.plusMonths(1);
                 break;
             case "anual":
-                inicio = ahora.withDayOfYear(1).toLocalDate().atStartOfDay();
+                inicio = referencia.withDayOfYear(1).atStartOfDay();
                 fin = inicio.plusYears(1);
                 break;
             default:
                 throw new IllegalArgumentException("Tipo de ganancia no válido: " + tipo);
         }
 
-        List<Venta> ventas = ventaRepository.findByFechaVentaBetween(inicio, fin);
+        if (fin.isAfter(LocalDateTime.now())) {
+            return lecturaTemplate.execute(status -> sumarTotales(ventaRepository.findByFechaVentaBetween(inicio, fin)));
+        }
+        // Un periodo que ya terminó solo cambia si se borran o modifican sus ventas
+        return gananciasCerradas.obtener(periodo, inicio, fin, () ->
+                lecturaTemplate.execute(status -> sumarTotales(ventaRepository.findByFechaVentaBetween(inicio, fin))));
+    }
+
+    // Los totales se calculan con los ítems: debe llamarse dentro de la transacción
+    private static BigDecimal sumarTotales(List<Venta> ventas) {
         return ventas.stream()
                 .map(Venta::getTotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
+
+    /**
+     * Ejecuta DELETE por conjuntos, un lote por transacción, hasta que el proveedor
+     * no entregue más ids. Primero se borran los ítems y luego las ventas del lote,
+     * sin cargar entidades (evita el borrado fila a fila de orphanRemoval).
+     *
+     * Tras el commit de cada lote se retiran de la caché de segundo nivel solo esas ventas,
+     * sus colecciones de ítems y sus ítems; el resto de las regiones se conserva. De las
+     * ganancias de periodos cerrados se descartan solo los periodos de las ventas borradas.
+     */
+    private EliminacionResultadoDTO eliminarEnLotes(String descripcion, Supplier<List<Long>> siguienteLote) {
+        long inicio = System.nanoTime();
+        int ventas = 0;
+        int items = 0;
+
+        while (true) {
+            LoteEliminado lote = transactionTemplate.execute(status -> {
+                List<Long> ids = siguienteLote.get();
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                List<Long> itemIds = ventaRepository.findItemIdsByVentaIdIn(ids);
+                List<LocalDateTime> fechas = ventaRepository.findFechasVentaByIdIn(ids);
+                int itemsLote = ventaRepository.deleteItemsByVentaIdIn(ids);
+                int ventasLote = ventaRepository.deleteByIdIn(ids);
+                return new LoteEliminado(ids, itemIds, fechas, ventasLote, itemsLote);
+            });
+            if (lote == null) {
+                break;
+            }
+            // Solo tras el commit se retira del índice de productos y de la caché
+            lote.ids().forEach(productoIndex::remover);
+            retirarDeCache(lote);
+            ventas += lote.ventas();
+            items += lote.items();
+        }
+
+        EliminacionResultadoDTO resultado =
+                new EliminacionResultadoDTO(ventas, items, (System.nanoTime() - inicio) / 1_000_000);
+        log.info("{}: {} ventas y {} ítems eliminados en {} ms ({} filas/s)", descripcion,
+                ventas, items, resultado.getDuracionMs(), Math.round(resultado.getFilasPorSegundo()));
+        return resultado;
+    }
+
+    private void retirarDeCache(LoteEliminado lote) {
+        for (Long id : lote.ids()) {
+            cache.evictEntityData(Venta.class, id);
+            cache.evictCollectionData(ROL_ITEMS, id);
+        }
+        lote.itemIds().forEach(id -> cache.evictEntityData(ItemVenta.class, id));
+        gananciasCerradas.invalidar(lote.fechas());
+    }
+
+    private static Iterator<List<Long>> particionar(List<Long> ids, int tamano) {
+        List<List<Long>> lotes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += tamano) {
+            lotes.add(ids.subList(i, Math.min(i + tamano, ids.size())));
+        }
+        return lotes.iterator();
+    }
+
+    private record LoteEliminado(List<Long> ids, List<Long> itemIds, List<LocalDateTime> fechas,
+                                 int ventas, int items) {
+    }
 }
@@ -0,0 +1,109 @@
+package com.ejemplo.microservicio_venta.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas unitarias del control de admisión: compartimentos por grupo,
+ * rechazo rápido con 503 y ajuste adaptativo del límite.
+ */
+class AdmisionInterceptorTest {
+
+    /**
+     * Controlador de prueba con un endpoint de cada grupo.
+     */
+    static class ControladorPrueba {
+        @GrupoAdmision(GrupoAdmision.REPORTES)
+        public void reporte() {
+        }
+
+        public void obtener() {
+        }
+    }
+
+    private static AdmisionProperties.Grupo grupo(int inicial, int max, Duration objetivo) {
+        AdmisionProperties.Grupo grupo = new AdmisionProperties.Grupo();
+        grupo.setMinConcurrencia(1);
+        grupo.setConcurrenciaInicial(inicial);
+        grupo.setMaxConcurrencia(max);
+        grupo.setLatenciaObjetivo(objetivo);
+        return grupo;
+    }
+
+    private static HandlerMethod handler(String metodo) throws NoSuchMethodException {
+        return new HandlerMethod(new ControladorPrueba(), ControladorPrueba.class.getMethod(metodo));
+    }
+
+    /**
+     * Con el grupo de reportes lleno, un nuevo reporte recibe 503 con Retry-After,
+     * mientras que una operación CRUD sigue siendo admitida.
+     */
+    @Test
+    void reportesSaturados_noBloqueanCrud() throws Exception {
+        AdmisionProperties properties = new AdmisionProperties();
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        properties.getGrupos().put(GrupoAdmision.REPORTES, grupo(1, 1, Duration.ofSeconds(2)));
+        AdmisionInterceptor interceptor = new AdmisionInterceptor(properties, new SimpleMeterRegistry());
+
+        MockHttpServletRequest reporteEnCurso = new MockHttpServletRequest();
+        assertTrue(interceptor.preHandle(reporteEnCurso, new MockHttpServletResponse(), handler("reporte")));
+
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest(), rechazada, handler("reporte")));
+        assertEquals(503, rechazada.getStatus());
+        assertEquals("3", rechazada.getHeader("Retry-After"));
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("obtener")));
+
+        // Al terminar el reporte en curso se libera su lugar
+        interceptor.afterCompletion(reporteEnCurso, new MockHttpServletResponse(), handler("reporte"), null);
+        assertEquals(0, interceptor.limitador(GrupoAdmision.REPORTES).getEnCurso());
+        assertEquals(1, interceptor.limitador(GrupoAdmision.REPORTES).getRechazos());
+    }
+
+    /**
+     * Respuestas lentas reducen el límite; respuestas rápidas con el límite en uso lo recuperan.
+     */
+    @Test
+    void limite_seAdaptaALaLatencia() {
+        LimitadorAdaptativo limitador = new LimitadorAdaptativo(grupo(10, 20, Duration.ofMillis(100)));
+
+        assertTrue(limitador.intentarAdquirir());
+        limitador.liberar(Duration.ofSeconds(1).toNanos());
+        assertEquals(9, limitador.getLimite());
+
+        // Llenamos el límite y liberamos con latencias bajas: crece de a una unidad por ventana
+        for (int i = 0; i < 20; i++) {
+            while (limitador.intentarAdquirir()) {
+                // ocupar todo el límite
+            }
+            limitador.liberar(Duration.ofMillis(10).toNanos());
+            while (limitador.getEnCurso() > 0) {
+                limitador.liberar(Duration.ofMillis(10).toNanos());
+            }
+        }
+        assertTrue(limitador.getLimite() > 9);
+        assertTrue(limitador.getLimite() <= 20);
+    }
+
+    /**
+     * Sin configuración, los grupos conocidos más las conexiones reservadas caben en el pool por
+     * defecto de Hikari (10), para que el exceso se rechace con 503 en lugar de esperar una conexión.
+     */
+    @Test
+    void valoresPorDefecto_cabenEnElPoolDeHikari() {
+        AdmisionInterceptor interceptor = new AdmisionInterceptor(new AdmisionProperties(), new SimpleMeterRegistry());
+
+        assertTrue(interceptor.getConcurrenciaMaximaTotal() + AdmisionConfig.CONEXIONES_RESERVADAS
+                <= AdmisionConfig.POOL_HIKARI_POR_DEFECTO);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ejemplo.microservicio_venta.config;
+
+import com.ejemplo.microservicio_venta.model.Venta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static com.ejemplo.microservicio_venta.config.FormatosBinariosConfigTest.LISTA_VENTAS_REF;
+import static com.ejemplo.microservicio_venta.config.FormatosBinariosConfigTest.builder;
+import static com.ejemplo.microservicio_venta.config.FormatosBinariosConfigTest.escribir;
+import static com.ejemplo.microservicio_venta.config.FormatosBinariosConfigTest.leerLista;
+import static com.ejemplo.microservicio_venta.config.FormatosBinariosConfigTest.ventas;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comparación de tamaño de carga y tiempo de codificación/decodificación entre JSON,
+ * Smile, CBOR y Protobuf para una lista de ventas con ítems.
+ *
+ * Es una medición orientativa (sin JMH): cada formato codifica y decodifica la misma lista
+ * completa, con una fase de calentamiento previa, y los tiempos se registran en el log.
+ * No forma parte de {@code mvn test}; se ejecuta con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class FormatosBinariosBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FormatosBinariosBenchmarkTest.class);
+
+    private static final int VENTAS = 500;
+    private static final int ITEMS_POR_VENTA = 5;
+    private static final int CALENTAMIENTO = 50;
+    private static final int ITERACIONES = 100;
+
+    @Test
+    void compararFormatos() throws Exception {
+        List<Venta> ventas = ventas(VENTAS, ITEMS_POR_VENTA);
+        VentaProtobufHttpMessageConverter protobuf =
+            new VentaProtobufHttpMessageConverter(FormatosBinariosConfig.mapperProtobuf(builder(), false));
+
+        List<Medicion> mediciones = List.of(
+            medirJackson("JSON", builder().build(), ventas),
+            medirJackson("Smile", FormatosBinariosConfig.mapperBinario(builder(), new SmileFactory(), false), ventas),
+            medirJackson("CBOR", FormatosBinariosConfig.mapperBinario(builder(), new CBORFactory(), false), ventas),
+            medir("Protobuf", () -> escribir(protobuf, ventas), bytes -> leerLista(protobuf, bytes)));
+
+        log.info(String.format("%-9s %10s %14s %14s", "Formato", "Bytes", "Codif. (ms)", "Decodif. (ms)"));
+        for (Medicion m : mediciones) {
+            log.info(String.format("%-9s %10d %14.3f %14.3f", m.formato(), m.bytes(), m.codificacionMs(), m.decodificacionMs()));
+            assertEquals(VENTAS, m.ventasDecodificadas(), m.formato() + " debería decodificar todas las ventas");
+        }
+    }
+
+    // --- Mediciones ---
+
+    private interface Codificador {
+        byte[] codificar() throws Exception;
+    }
+
+    private interface Decodificador {
+        List<Venta> decodificar(byte[] bytes) throws Exception;
+    }
+
+    private Medicion medirJackson(String formato, ObjectMapper mapper, List<Venta> ventas) throws Exception {
+        return medir(formato, () -> mapper.writeValueAsBytes(ventas), bytes -> mapper.readValue(bytes, LISTA_VENTAS_REF));
+    }
+
+    private Medicion medir(String formato, Codificador codificador, Decodificador decodificador) throws Exception {
+        byte[] bytes = codificador.codificar();
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            decodificador.decodificar(codificador.codificar());
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            bytes = codificador.codificar();
+        }
+        double codificacion = (System.nanoTime() - inicio) / 1e6 / ITERACIONES;
+
+        List<Venta> leidas = List.of();
+        inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            leidas = decodificador.decodificar(bytes);
+        }
+        double decodificacion = (System.nanoTime() - inicio) / 1e6 / ITERACIONES;
+        return new Medicion(formato, bytes.length, codificacion, decodificacion, leidas.size());
+    }
+
+    private record Medicion(String formato, int bytes, double codificacionMs, double decodificacionMs, int ventasDecodificadas) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.ejemplo.microservicio_venta.config;
+
+import com.ejemplo.microservicio_venta.dto.VentaDTO;
+import com.ejemplo.microservicio_venta.model.ItemVenta;
+import com.ejemplo.microservicio_venta.model.Venta;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de los mappers y del convertidor de formatos binarios (Smile, CBOR y Protobuf):
+ * cada formato ida y vuelta sobre una lista de ventas, y enlaces HATEOAS opcionales.
+ * La comparación de tiempos está en {@link FormatosBinariosBenchmarkTest} (-Pbenchmark).
+ */
+class FormatosBinariosConfigTest {
+
+    // Tipo genérico List<Venta>, como el que devuelve GET /api/ventas
+    static final TypeReference<List<Venta>> LISTA_VENTAS_REF = new TypeReference<>() { };
+    static final Type LISTA_VENTAS = LISTA_VENTAS_REF.getType();
+
+    /**
+     * Configuración equivalente a la que Spring Boot aplica al ObjectMapper (fechas ISO-8601).
+     */
+    static Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Cada formato binario produce una carga menor que JSON para la misma lista
+     * y la decodifica completa, con sus ítems.
+     */
+    @Test
+    void formatosBinarios_masCompactosQueJson() throws Exception {
+        List<Venta> ventas = ventas(100, 5);
+        ObjectMapper json = builder().build();
+        VentaProtobufHttpMessageConverter protobuf =
+            new VentaProtobufHttpMessageConverter(FormatosBinariosConfig.mapperProtobuf(builder(), false));
+
+        int bytesJson = json.writeValueAsBytes(ventas).length;
+        Map<String, ObjectMapper> jackson = Map.of(
+            "Smile", FormatosBinariosConfig.mapperBinario(builder(), new SmileFactory(), false),
+            "CBOR", FormatosBinariosConfig.mapperBinario(builder(), new CBORFactory(), false));
+        for (Map.Entry<String, ObjectMapper> formato : jackson.entrySet()) {
+            byte[] bytes = formato.getValue().writeValueAsBytes(ventas);
+            List<Venta> leidas = formato.getValue().readValue(bytes, LISTA_VENTAS_REF);
+            assertTrue(bytes.length < bytesJson, formato.getKey() + " debería ser más compacto que JSON");
+            assertEquals(100, leidas.size());
+            assertEquals(5, leidas.get(99).getItems().size());
+        }
+
+        byte[] bytes = escribir(protobuf, ventas);
+        List<Venta> leidas = leerLista(protobuf, bytes);
+        assertTrue(bytes.length < bytesJson, "Protobuf debería ser más compacto que JSON");
+        assertEquals(100, leidas.size());
+        assertEquals(5, leidas.get(99).getItems().size());
+        assertEquals(0, new BigDecimal("19.90").compareTo(leidas.get(0).getItems().get(0).getPrecioUnitario()));
+    }
+
+    /**
+     * Los enlaces HATEOAS se omiten en formatos binarios salvo que se pidan explícitamente.
+     */
+    @Test
+    void linksHateoas_sonOpcionales() throws Exception {
+        VentaDTO dto = new VentaDTO();
+        dto.setId(1L);
+        dto.add(Link.of("/api/ventas/1").withSelfRel());
+
+        ObjectMapper sinLinks = FormatosBinariosConfig.mapperBinario(builder(), new SmileFactory(), false);
+        ObjectMapper conLinks = FormatosBinariosConfig.mapperBinario(builder(), new SmileFactory(), true);
+
+        assertFalse(sinLinks.readTree(sinLinks.writeValueAsBytes(dto)).has("links"));
+        assertEquals("/api/ventas/1",
+            conLinks.readTree(conLinks.writeValueAsBytes(dto)).get("links").get(0).get("href").asText());
+    }
+
+    // --- Auxiliares (compartidos con el benchmark) ---
+
+    static byte[] escribir(VentaProtobufHttpMessageConverter converter, List<Venta> ventas) throws IOException {
+        MockHttpOutputMessage salida = new MockHttpOutputMessage();
+        converter.write(ventas, LISTA_VENTAS, VentaProtobufHttpMessageConverter.APPLICATION_PROTOBUF, salida);
+        return salida.getBodyAsBytes();
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Venta> leerLista(VentaProtobufHttpMessageConverter converter, byte[] bytes) throws IOException {
+        return (List<Venta>) converter.read(LISTA_VENTAS, null, new MockHttpInputMessage(bytes));
+    }
+
+    static List<Venta> ventas(int cantidad, int itemsPorVenta) {
+        List<Venta> ventas = new ArrayList<>();
+        for (long id = 1; id <= cantidad; id++) {
+            Venta venta = new Venta();
+            venta.setId(id);
+            venta.setFechaVenta(LocalDateTime.of(2025, 9, 25, 10, 0).plusMinutes(id));
+            List<ItemVenta> items = new ArrayList<>();
+            for (int i = 1; i <= itemsPorVenta; i++) {
+                ItemVenta item = new ItemVenta();
+                item.setId(id * 10 + i);
+                item.setNombreProducto("Producto " + i);
+                item.setCantidad(i);
+                item.setPrecioUnitario(new BigDecimal("19.90"));
+                item.setVenta(venta);
+                items.add(item);
+            }
+            venta.setItems(items);
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+}
@@ -0,0 +1,124 @@
+package com.ejemplo.microservicio_venta.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pruebas del enrutamiento lectura/escritura sobre dos bases H2 distintas,
+ * cada una con una tabla que indica a qué base se conectó la consulta.
+ */
+class LecturaEscrituraRoutingDataSourceTest {
+
+    private LecturaEscrituraRoutingDataSource enrutador;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate lectura;
+    private TransactionTemplate escritura;
+    private final AtomicBoolean replicaUtilizable = new AtomicBoolean(true);
+
+    private static DataSource baseConOrigen(String nombre) {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS ORIGEN (NOMBRE VARCHAR(20))");
+        jdbc.update("DELETE FROM ORIGEN");
+        jdbc.update("INSERT INTO ORIGEN VALUES (?)", nombre);
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        enrutador = new LecturaEscrituraRoutingDataSource(baseConOrigen("primaria"), baseConOrigen("replica"));
+        enrutador.setReplicaUtilizable(replicaUtilizable::get);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(enrutador);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        escritura = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        enrutador.destroy();
+    }
+
+    private String origen(TransactionTemplate transaccion) {
+        return transaccion.execute(status -> jdbcTemplate.queryForObject("SELECT NOMBRE FROM ORIGEN", String.class));
+    }
+
+    /**
+     * Las transacciones de solo lectura van a la réplica y las de escritura a la primaria.
+     */
+    @Test
+    void soloLectura_vaALaReplica() {
+        assertEquals("replica", origen(lectura));
+        assertEquals("primaria", origen(escritura));
+    }
+
+    /**
+     * Si el monitor marca la réplica como no utilizable, las lecturas vuelven a la primaria.
+     */
+    @Test
+    void replicaNoUtilizable_leeDeLaPrimaria() {
+        replicaUtilizable.set(false);
+
+        assertEquals("primaria", origen(lectura));
+    }
+
+    /**
+     * Tras una escritura, el cliente que reenvía la marca recibida (cookie o encabezado) lee de la
+     * primaria durante la ventana, también si lo atiende otra instancia; sin la marca, o pasada la
+     * ventana, lee de la réplica.
+     */
+    @Test
+    void escrituraReciente_leeDeLaPrimariaSoloConLaMarca() throws Exception {
+        LecturaPropiaFilter filter = new LecturaPropiaFilter(Duration.ofMinutes(1));
+        LecturaPropiaFilter otraInstancia = new LecturaPropiaFilter(Duration.ofMinutes(1), Set.of(), Clock.systemUTC());
+        LecturaPropiaFilter vencida = new LecturaPropiaFilter(Duration.ofMinutes(1), Set.of(),
+                Clock.offset(Clock.systemUTC(), Duration.ofMinutes(2)));
+        AtomicReference<String> origen = new AtomicReference<>();
+
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/ventas"), respuesta, (req, res) -> { });
+        Cookie cookie = respuesta.getCookie(LecturaPropiaFilter.COOKIE_ULTIMA_ESCRITURA);
+        String marca = respuesta.getHeader(LecturaPropiaFilter.ENCABEZADO_ULTIMA_ESCRITURA);
+        assertEquals(marca, cookie.getValue());
+
+        MockHttpServletRequest conCookie = new MockHttpServletRequest("GET", "/api/ventas");
+        conCookie.setCookies(cookie);
+        otraInstancia.doFilter(conCookie, new MockHttpServletResponse(), (req, res) -> origen.set(origen(lectura)));
+        assertEquals("primaria", origen.get());
+
+        MockHttpServletRequest conEncabezado = new MockHttpServletRequest("GET", "/api/ventas");
+        conEncabezado.addHeader(LecturaPropiaFilter.ENCABEZADO_ULTIMA_ESCRITURA, marca);
+        filter.doFilter(conEncabezado, new MockHttpServletResponse(), (req, res) -> origen.set(origen(lectura)));
+        assertEquals("primaria", origen.get());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/ventas"), new MockHttpServletResponse(),
+                (req, res) -> origen.set(origen(lectura)));
+        assertEquals("replica", origen.get());
+
+        vencida.doFilter(conEncabezado, new MockHttpServletResponse(), (req, res) -> origen.set(origen(lectura)));
+        assertEquals("replica", origen.get());
+    }
+}
@@ -0,0 +1,219 @@
+package com.ejemplo.microservicio_venta.config;
+
+import com.ejemplo.microservicio_venta.model.ItemVenta;
+import com.ejemplo.microservicio_venta.model.Venta;
+import com.ejemplo.microservicio_venta.service.GananciasCerradasCache;
+import com.ejemplo.microservicio_venta.service.VentaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas del enrutamiento lectura/escritura con la aplicación completa (JPA, caché de segundo
+ * nivel y filtro de lectura propia) sobre dos bases H2 distintas. La réplica recibe una copia del
+ * esquema pero no los datos: lo que solo está en una base indica de dónde se leyó.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=" + LecturaEscrituraRoutingIntegrationTest.URL_PRIMARIA,
+    "ventas.datasource.replica.habilitada=true",
+    "ventas.datasource.replica.url=" + LecturaEscrituraRoutingIntegrationTest.URL_REPLICA,
+    "ventas.datasource.replica.username=sa",
+    "ventas.datasource.replica.password=",
+    "ventas.datasource.replica.driver-class-name=org.h2.Driver"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LecturaEscrituraRoutingIntegrationTest {
+
+    static final String URL_PRIMARIA = "jdbc:h2:mem:ventas-primaria;DB_CLOSE_DELAY=-1";
+    static final String URL_REPLICA = "jdbc:h2:mem:ventas-replica;DB_CLOSE_DELAY=-1";
+
+    // Venta que solo existe en la réplica (marzo de 2024, periodo cerrado)
+    private static final long VENTA_REPLICA = 1000L;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GananciasCerradasCache gananciasCerradas;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate primaria = new JdbcTemplate(new DriverManagerDataSource(URL_PRIMARIA, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "sa", ""));
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        // Esquema de la réplica = esquema creado por Hibernate en la primaria, sin datos
+        List<String> esquema = primaria.queryForList("SCRIPT NODATA", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        esquema.forEach(replica::execute);
+        primaria.update("DELETE FROM ITEM_VENTA");
+        primaria.update("DELETE FROM VENTA");
+
+        replica.update("INSERT INTO VENTA (ID, FECHA_VENTA, TOTAL) VALUES (?, ?, ?)",
+            VENTA_REPLICA, LocalDateTime.of(2024, 3, 10, 12, 0), new BigDecimal("30.00"));
+        replica.update("INSERT INTO ITEM_VENTA (ID, NOMBRE_PRODUCTO, CANTIDAD, PRECIO_UNITARIO, VENTA_ID) "
+            + "VALUES (?, ?, ?, ?, ?)", 5000L, "Solo en réplica", 3, new BigDecimal("10.00"), VENTA_REPLICA);
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        cache = sessionFactory.getCache();
+        cache.evictAll();
+        gananciasCerradas.invalidarTodo();
+    }
+
+    private Venta ventaNueva(String producto) {
+        ItemVenta item = new ItemVenta();
+        item.setNombreProducto(producto);
+        item.setCantidad(1);
+        item.setPrecioUnitario(new BigDecimal("10.00"));
+        Venta venta = new Venta();
+        venta.setItems(new ArrayList<>(List.of(item)));
+        return venta;
+    }
+
+    /**
+     * Las lecturas de solo lectura van a la réplica (con sus ítems ya cargados, sin open-in-view)
+     * y las escrituras, y la lectura para actualizar, a la primaria.
+     */
+    @Test
+    void lecturasALaReplica_escriturasALaPrimaria() {
+        Long enPrimaria = ventaService.save(ventaNueva("Teclado")).getId();
+        // La escritura deja la venta en la caché; se descarta para que la lectura vaya a la base
+        cache.evictAll();
+
+        assertEquals(1, primaria.queryForObject("SELECT COUNT(*) FROM VENTA", Integer.class));
+        assertEquals(1, replica.queryForObject("SELECT COUNT(*) FROM VENTA", Integer.class));
+
+        Venta leida = ventaService.findById(VENTA_REPLICA).orElseThrow();
+        assertEquals("Solo en réplica", leida.getItems().get(0).getNombreProducto());
+        assertTrue(ventaService.findById(enPrimaria).isEmpty());
+
+        assertTrue(ventaService.findByIdParaActualizar(enPrimaria).isPresent());
+        assertTrue(ventaService.findByIdParaActualizar(VENTA_REPLICA).isEmpty());
+    }
+
+    /**
+     * Lo leído de la réplica no se guarda en la caché de segundo nivel (ni la venta, ni su
+     * colección, ni sus ítems); lo leído de la primaria sí.
+     */
+    @Test
+    void lecturaEnReplica_noSeGuardaEnLaCache() {
+        assertTrue(ventaService.findById(VENTA_REPLICA).isPresent());
+
+        assertFalse(cache.containsEntity(Venta.class, VENTA_REPLICA));
+        assertFalse(cache.containsCollection(Venta.class.getName() + ".items", VENTA_REPLICA));
+        assertFalse(cache.containsEntity(ItemVenta.class, 5000L));
+
+        Long enPrimaria = ventaService.save(ventaNueva("Monitor")).getId();
+        cache.evictAll();
+        ventaService.findByIdParaActualizar(enPrimaria);
+        assertTrue(cache.containsEntity(Venta.class, enPrimaria));
+    }
+
+    /**
+     * Las ganancias se calculan en la réplica, tanto las de un periodo cerrado (la venta de marzo
+     * que solo está en la réplica cuenta) como las del periodo en curso. Un total leído de la réplica
+     * antes de que pase max-lag desde la última invalidación no se guarda: podría no reflejarla.
+     */
+    @Test
+    void ganancias_seCalculanEnLaReplica() {
+        long aciertos = gananciasCerradas.getAciertos();
+        assertEquals(new BigDecimal("30.00"), ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1)));
+        assertEquals(new BigDecimal("30.00"), ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1)));
+        assertEquals(aciertos, gananciasCerradas.getAciertos());
+        assertFalse(cache.containsEntity(Venta.class, VENTA_REPLICA));
+
+        replica.update("INSERT INTO VENTA (ID, FECHA_VENTA, TOTAL) VALUES (?, ?, ?)",
+            1001L, LocalDateTime.now(), new BigDecimal("0.00"));
+        replica.update("INSERT INTO ITEM_VENTA (ID, NOMBRE_PRODUCTO, CANTIDAD, PRECIO_UNITARIO, VENTA_ID) "
+            + "VALUES (?, ?, ?, ?, ?)", 5001L, "Hoy en réplica", 2, new BigDecimal("10.00"), 1001L);
+        assertEquals(new BigDecimal("20.00"), ventaService.calcularGanancias("anual"));
+    }
+
+    /**
+     * A través de la API: tras crear una venta, el cliente que reenvía la cookie recibida la lee de
+     * la primaria durante la ventana de lectura propia; otro cliente sigue leyendo de la réplica,
+     * que no la tiene. Cada petición usa su propia transacción y conexión (sin open-in-view).
+     */
+    @Test
+    void api_lecturaPropiaTrasEscritura() throws Exception {
+        MockHttpServletResponse respuesta = mockMvc.perform(post("/api/ventas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fechaVenta\":\"2024-03-10T12:00:00\",\"total\":10.00,"
+                    + "\"items\":[{\"nombreProducto\":\"Mouse\",\"cantidad\":1,\"precioUnitario\":10.00}]}"))
+            .andExpect(status().isCreated())
+            .andExpect(header().exists(LecturaPropiaFilter.ENCABEZADO_ULTIMA_ESCRITURA))
+            .andReturn().getResponse();
+        long id = objectMapper.readTree(respuesta.getContentAsString()).get("id").asLong();
+        Cookie marca = respuesta.getCookie(LecturaPropiaFilter.COOKIE_ULTIMA_ESCRITURA);
+        cache.evictAll();
+
+        // Otro cliente lee de la réplica (sin dejar nada en la caché), el autor de la primaria
+        mockMvc.perform(get("/api/ventas/{id}", id))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/ventas/{id}", id).cookie(marca))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].nombreProducto").value("Mouse"));
+        mockMvc.perform(get("/api/ventas/{id}", VENTA_REPLICA))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].nombreProducto").value("Solo en réplica"));
+    }
+
+    /**
+     * POST /api/ventas/lookup solo consulta: no devuelve marca de escritura, así que el cliente
+     * que lo usó sigue leyendo de la réplica (donde está la venta de marzo).
+     */
+    @Test
+    void api_lookupNoCuentaComoEscritura() throws Exception {
+        MockHttpServletResponse respuesta = mockMvc.perform(post("/api/ventas/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + VENTA_REPLICA + "]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ventas[0].id").value(VENTA_REPLICA))
+            .andExpect(header().doesNotExist(LecturaPropiaFilter.ENCABEZADO_ULTIMA_ESCRITURA))
+            .andReturn().getResponse();
+        assertEquals(0, respuesta.getCookies().length);
+
+        mockMvc.perform(get("/api/ventas/{id}", VENTA_REPLICA))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].nombreProducto").value("Solo en réplica"));
+    }
+}
@@ -6,6 +6,12 @@ import com.ejemplo.microservicio_venta.model.ItemVenta;
 // Importamos el modelo Venta para crear objetos de prueba
 import com.ejemplo.microservicio_venta.model.Venta;
 
+// DTO con el resumen de una eliminación masiva
+import com.ejemplo.microservicio_venta.dto.EliminacionResultadoDTO;
+
+// DTO con el resultado de una consulta múltiple por ids
+import com.ejemplo.microservicio_venta.dto.VentaLoteDTO;
+
 // Importamos el servicio que vamos a mockear para evitar usar la base real
 import com.ejemplo.microservicio_venta.service.VentaService;
 
@@ -30,20 +36,39 @@ import org.springframework.test.web.servlet.MockMvc;
 // Anotación para inyectar MockMvc automáticamente
 import org.springframework.beans.factory.annotation.Autowired;
 
+// Jackson para decodificar respuestas en formatos binarios (Smile y Protobuf)
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.core.io.ClassPathResource;
+
+// Página de resultados (con indicador de página siguiente) de la búsqueda por producto
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
 // Define tipo de contenido JSON en peticiones/respuestas HTTP
 import org.springframework.http.MediaType;
 
 // Para crear listas y colecciones de prueba
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 // Clases para manejar fechas y dinero en las ventas
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 // Importamos métodos estáticos para construir y validar peticiones MockMvc
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
@@ -179,4 +204,252 @@ public class VentaControllerTest {
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound()); // HTTP 404 Not Found esperado
     }
+
+    /**
+     * Test para el endpoint GET /api/ventas/buscar que busca ventas por producto.
+     * Verificamos que las fechas del rango se convierten a inicio y fin de día
+     * y que se informa si hay una página siguiente.
+     */
+    @Test
+    void buscarPorProducto_retornaVentasEncontradas() throws Exception {
+        ItemVenta item = new ItemVenta();
+        item.setNombreProducto("Laptop Gamer");
+        item.setCantidad(1);
+        item.setPrecioUnitario(new BigDecimal("900.00"));
+
+        Venta venta = new Venta();
+        venta.setId(7L);
+        venta.setFechaVenta(LocalDateTime.of(2025, 9, 25, 10, 0));
+        venta.setItems(List.of(item));
+        item.setVenta(venta);
+
+        Mockito.when(ventaService.buscarPorProducto(
+                "lap",
+                LocalDateTime.of(2025, 9, 1, 0, 0),
+                LocalDate.of(2025, 9, 30).atTime(LocalTime.MAX),
+                0,
+                50))
+            .thenReturn(new SliceImpl<>(List.of(venta), PageRequest.of(0, 50), true));
+
+        mockMvc.perform(get("/api/ventas/buscar")
+                .param("producto", "lap")
+                .param("desde", "2025-09-01")
+                .param("hasta", "2025-09-30")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Hay-Mas", "true"))
+                .andExpect(jsonPath("$[0].id").value(7L))
+                .andExpect(jsonPath("$[0].items[0].nombreProducto").value("Laptop Gamer"));
+    }
+
+    /**
+     * Un tamaño de página mayor al máximo se rechaza sin consultar el servicio.
+     */
+    @Test
+    void buscarPorProducto_tamanoExcesivo_retorna400() throws Exception {
+        mockMvc.perform(get("/api/ventas/buscar")
+                .param("producto", "l")
+                .param("tamano", "10000"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(ventaService);
+    }
+
+    /**
+     * Test para el endpoint GET /api/ventas/ganancias con fecha de referencia.
+     * La fecha se pasa al servicio para calcular un periodo pasado (cacheable).
+     */
+    @Test
+    void calcularGanancias_conFecha_usaPeriodoIndicado() throws Exception {
+        Mockito.when(ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1)))
+            .thenReturn(new BigDecimal("1500.00"));
+
+        mockMvc.perform(get("/api/ventas/ganancias")
+                .param("tipo", "mensual")
+                .param("fecha", "2024-03-01")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1500.00"));
+    }
+
+    /**
+     * Test para el endpoint DELETE /api/ventas/{id} cuando la venta no existe.
+     * El borrado por conjunto no elimina filas, por lo que se espera 404.
+     */
+    @Test
+    void eliminarVenta_noExiste_retorna404() throws Exception {
+        Mockito.when(ventaService.eliminarPorIds(List.of(99L)))
+            .thenReturn(new EliminacionResultadoDTO(0, 0, 1));
+
+        mockMvc.perform(delete("/api/ventas/{id}", 99L))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test para el endpoint DELETE /api/ventas?ids=... (eliminación masiva por ids).
+     * Se espera el resumen con las filas eliminadas y la tasa de borrado.
+     */
+    @Test
+    void eliminarVentas_porIds_retornaResumen() throws Exception {
+        Mockito.when(ventaService.eliminarPorIds(List.of(1L, 2L, 3L)))
+            .thenReturn(new EliminacionResultadoDTO(3, 6, 3));
+
+        mockMvc.perform(delete("/api/ventas").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ventasEliminadas").value(3))
+                .andExpect(jsonPath("$.itemsEliminados").value(6))
+                .andExpect(jsonPath("$.filasPorSegundo").value(3000.0));
+    }
+
+    /**
+     * Test para el endpoint DELETE /api/ventas?desde=...&hasta=... con rango invertido.
+     * Se espera 400 sin invocar al servicio.
+     */
+    @Test
+    void eliminarVentasPorRango_rangoInvalido_retorna400() throws Exception {
+        mockMvc.perform(delete("/api/ventas")
+                .param("desde", "2025-12-31")
+                .param("hasta", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(ventaService, Mockito.never()).eliminarPorRango(Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Test de negociación de contenido: GET /api/ventas/{id} en Smile.
+     * Decodificamos la respuesta binaria con un mapper Smile y validamos los campos.
+     */
+    @Test
+    void obtenerVentaPorId_enSmile() throws Exception {
+        Mockito.when(ventaService.findById(1L)).thenReturn(Optional.of(ventaConItem(1L, "Producto A")));
+
+        byte[] cuerpo = mockMvc.perform(get("/api/ventas/{id}", 1L)
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode venta = new ObjectMapper(new SmileFactory()).readTree(cuerpo);
+        assertEquals(1L, venta.get("id").asLong());
+        assertEquals("Producto A", venta.get("items").get(0).get("nombreProducto").asText());
+    }
+
+    /**
+     * Test de negociación de contenido: GET /api/ventas en Protobuf.
+     * La lista viaja envuelta en el mensaje VentaLista del esquema proto/venta.proto.
+     */
+    @Test
+    void listarVentas_enProtobuf() throws Exception {
+        Mockito.when(ventaService.findAll()).thenReturn(List.of(ventaConItem(1L, "Producto A"), ventaConItem(2L, "Producto B")));
+
+        byte[] cuerpo = mockMvc.perform(get("/api/ventas")
+                .accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        NativeProtobufSchema esquema = ProtobufSchemaLoader.std.loadNative(new ClassPathResource("proto/venta.proto").getURL());
+        JsonNode lista = new ProtobufMapper().readerFor(JsonNode.class)
+            .with(esquema.forType("VentaLista"))
+            .readValue(cuerpo);
+        assertEquals(2, lista.get("ventas").size());
+        assertEquals(2L, lista.get("ventas").get(1).get("id").asLong());
+        assertEquals("150.00", lista.get("ventas").get(0).get("total").asText());
+        assertEquals("2025-09-25T10:00:00", lista.get("ventas").get(0).get("fechaVenta").asText());
+    }
+
+    /**
+     * Test para GET /api/ventas?ids=... (consulta múltiple).
+     * Las ventas vuelven en el orden pedido y los ids inexistentes se informan aparte.
+     */
+    @Test
+    void obtenerVentasPorIds_respetaOrdenEInformaFaltantes() throws Exception {
+        Mockito.when(ventaService.findAllByIds(List.of(3L, 99L, 1L)))
+            .thenReturn(new VentaLoteDTO(List.of(ventaConItem(3L, "Producto C"), ventaConItem(1L, "Producto A")), List.of(99L)));
+
+        mockMvc.perform(get("/api/ventas")
+                .param("ids", "3,99,1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ventas.length()").value(2))
+                .andExpect(jsonPath("$.ventas[0].id").value(3))
+                .andExpect(jsonPath("$.ventas[1].id").value(1))
+                .andExpect(jsonPath("$.ventas[0].items[0].nombreProducto").value("Producto C"))
+                .andExpect(jsonPath("$.noEncontradas[0]").value(99));
+    }
+
+    /**
+     * Test para POST /api/ventas/lookup con los ids en el cuerpo.
+     */
+    @Test
+    void buscarVentasPorIds_conIdsEnElCuerpo() throws Exception {
+        Mockito.when(ventaService.findAllByIds(List.of(2L, 1L)))
+            .thenReturn(new VentaLoteDTO(List.of(ventaConItem(2L, "Producto B"), ventaConItem(1L, "Producto A")), List.of()));
+
+        mockMvc.perform(post("/api/ventas/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[2, 1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ventas[0].id").value(2))
+                .andExpect(jsonPath("$.ventas[1].id").value(1))
+                .andExpect(jsonPath("$.noEncontradas").isEmpty());
+    }
+
+    /**
+     * Test para POST /api/ventas/lookup con cuerpo y respuesta en Protobuf.
+     * Los ids viajan en el mensaje VentaIds y el resultado en VentaLoteDTO.
+     */
+    @Test
+    void buscarVentasPorIds_enProtobuf() throws Exception {
+        Mockito.when(ventaService.findAllByIds(List.of(2L, 99L, 1L)))
+            .thenReturn(new VentaLoteDTO(List.of(ventaConItem(2L, "Producto B"), ventaConItem(1L, "Producto A")), List.of(99L)));
+
+        NativeProtobufSchema esquema = ProtobufSchemaLoader.std.loadNative(new ClassPathResource("proto/venta.proto").getURL());
+        ProtobufMapper protobuf = new ProtobufMapper();
+        byte[] ids = protobuf.writer(esquema.forType("VentaIds"))
+            .writeValueAsBytes(Map.of("ids", List.of(2L, 99L, 1L)));
+
+        byte[] cuerpo = mockMvc.perform(post("/api/ventas/lookup")
+                .contentType("application/x-protobuf")
+                .accept("application/x-protobuf")
+                .content(ids))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode lote = protobuf.readerFor(JsonNode.class)
+            .with(esquema.forType("VentaLoteDTO"))
+            .readValue(cuerpo);
+        assertEquals(2L, lote.get("ventas").get(0).get("id").asLong());
+        assertEquals(1L, lote.get("ventas").get(1).get("id").asLong());
+        assertEquals(99L, lote.get("noEncontradas").get(0).asLong());
+    }
+
+    /**
+     * Una lista de ids vacía es inválida y no llega al servicio.
+     */
+    @Test
+    void buscarVentasPorIds_listaVacia_retorna400() throws Exception {
+        mockMvc.perform(post("/api/ventas/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(ventaService, Mockito.never()).findAllByIds(Mockito.anyList());
+    }
+
+    // Crea una venta con un único ítem de 3 x 50.00 (total 150.00)
+    private static Venta ventaConItem(Long id, String producto) {
+        ItemVenta item = new ItemVenta();
+        item.setNombreProducto(producto);
+        item.setCantidad(3);
+        item.setPrecioUnitario(new BigDecimal("50.00"));
+
+        Venta venta = new Venta();
+        venta.setId(id);
+        venta.setFechaVenta(LocalDateTime.of(2025, 9, 25, 10, 0));
+        venta.setItems(List.of(item));
+        item.setVenta(venta);
+        return venta;
+    }
 }
@@ -0,0 +1,141 @@
+package com.ejemplo.microservicio_venta.service;
+
+import com.ejemplo.microservicio_venta.model.ItemVenta;
+import com.ejemplo.microservicio_venta.model.Venta;
+import com.ejemplo.microservicio_venta.repository.VentaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pruebas de la caché de segundo nivel y de las ganancias de periodos cerrados sobre H2
+ * (perfil "test"): la segunda lectura de una venta o de un periodo cerrado no vuelve a la base.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VentaCacheSegundoNivelTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private GananciasCerradasCache gananciasCerradas;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private Long ventaId;
+
+    @BeforeEach
+    void setUp() {
+        ventaRepository.deleteAll();
+
+        // Venta de un periodo ya cerrado (marzo de 2024) con dos ítems
+        Venta venta = new Venta();
+        venta.setFechaVenta(LocalDateTime.of(2024, 3, 10, 12, 0));
+        venta.setTotal(new BigDecimal("250.00"));
+        venta.setItems(new ArrayList<>(List.of(item(venta, "Laptop", 1, "200.00"), item(venta, "Mouse", 2, "25.00"))));
+        ventaId = ventaRepository.save(venta).getId();
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAll();
+        gananciasCerradas.invalidarTodo();
+        estadisticas = sessionFactory.getStatistics();
+        estadisticas.clear();
+    }
+
+    private static ItemVenta item(Venta venta, String producto, int cantidad, String precio) {
+        ItemVenta item = new ItemVenta();
+        item.setNombreProducto(producto);
+        item.setCantidad(cantidad);
+        item.setPrecioUnitario(new BigDecimal(precio));
+        item.setVenta(venta);
+        return item;
+    }
+
+    /**
+     * La primera lectura por id carga la venta en la región "venta"; la segunda la toma de ahí.
+     */
+    @Test
+    void findById_segundaLecturaDesdeCache() {
+        ventaService.findById(ventaId);
+        long sentencias = estadisticas.getPrepareStatementCount();
+
+        ventaService.findById(ventaId);
+
+        assertEquals(sentencias, estadisticas.getPrepareStatementCount());
+        assertEquals(1, estadisticas.getDomainDataRegionStatistics("venta").getMissCount());
+        assertEquals(1, estadisticas.getDomainDataRegionStatistics("venta").getHitCount());
+    }
+
+    /**
+     * Las ganancias de un periodo cerrado se calculan una vez; la segunda lectura no consulta la base,
+     * aunque entre ambas se haya registrado una venta (que cae en el periodo en curso).
+     */
+    @Test
+    void gananciasPeriodoCerrado_altaEntreLecturasNoInvalida() {
+        BigDecimal primera = ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 15));
+        ventaService.save(nueva("Collar"));
+        long aciertos = gananciasCerradas.getAciertos();
+        long sentencias = estadisticas.getPrepareStatementCount();
+
+        BigDecimal segunda = ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1));
+
+        assertEquals(0, new BigDecimal("250.00").compareTo(primera));
+        assertEquals(primera, segunda);
+        assertEquals(sentencias, estadisticas.getPrepareStatementCount());
+        assertEquals(aciertos + 1, gananciasCerradas.getAciertos());
+    }
+
+    /**
+     * Borrar una venta invalida solo los periodos que contienen su fecha; modificarla (pasa a la
+     * fecha actual) también saca su total del periodo anterior.
+     */
+    @Test
+    void gananciasPeriodoCerrado_seInvalidaSoloElPeriodoAfectado() {
+        Venta abril = new Venta();
+        abril.setFechaVenta(LocalDateTime.of(2024, 4, 2, 9, 0));
+        abril.setItems(new ArrayList<>(List.of(item(abril, "Arnés", 1, "40.00"))));
+        Long abrilId = ventaRepository.save(abril).getId();
+
+        assertEquals(0, new BigDecimal("250.00").compareTo(ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1))));
+        assertEquals(0, new BigDecimal("40.00").compareTo(ventaService.calcularGanancias("mensual", LocalDate.of(2024, 4, 1))));
+        assertEquals(0, new BigDecimal("290.00").compareTo(ventaService.calcularGanancias("anual", LocalDate.of(2024, 1, 1))));
+
+        ventaService.eliminarPorIds(List.of(abrilId));
+        long aciertos = gananciasCerradas.getAciertos();
+
+        assertEquals(0, new BigDecimal("250.00").compareTo(ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1))));
+        assertEquals(aciertos + 1, gananciasCerradas.getAciertos());
+        assertEquals(0, BigDecimal.ZERO.compareTo(ventaService.calcularGanancias("mensual", LocalDate.of(2024, 4, 1))));
+        assertEquals(0, new BigDecimal("250.00").compareTo(ventaService.calcularGanancias("anual", LocalDate.of(2024, 1, 1))));
+        assertEquals(aciertos + 1, gananciasCerradas.getAciertos());
+
+        Venta marzo = ventaService.findByIdParaActualizar(ventaId).orElseThrow();
+        ventaService.save(marzo);
+        assertEquals(0, BigDecimal.ZERO.compareTo(ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1))));
+    }
+
+    private static Venta nueva(String producto) {
+        Venta venta = new Venta();
+        venta.setItems(new ArrayList<>(List.of(item(venta, producto, 1, "10.00"))));
+        return venta;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ejemplo.microservicio_venta.service;
+
+import com.ejemplo.microservicio_venta.dto.VentaLoteDTO;
+import com.ejemplo.microservicio_venta.model.ItemVenta;
+import com.ejemplo.microservicio_venta.model.Venta;
+import com.ejemplo.microservicio_venta.repository.VentaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la carga por lotes de ventas sobre H2 (perfil "test"),
+ * con lotes de 3 ids para ejercitar la partición.
+ */
+@SpringBootTest(properties = "ventas.lectura.tamano-lote=3")
+@ActiveProfiles("test")
+class VentaLoteLoaderTest {
+
+    // Id que no existe en la base
+    private static final long INEXISTENTE = 999_999L;
+
+    @Autowired
+    private VentaLoteLoader loteLoader;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ventaRepository.deleteAll();
+        ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Venta venta = new Venta();
+            venta.setFechaVenta(LocalDateTime.of(2024, 3, 10, 12, 0));
+            venta.setTotal(new BigDecimal("10.00"));
+            ItemVenta item = new ItemVenta();
+            item.setNombreProducto("Producto " + i);
+            item.setCantidad(1);
+            item.setPrecioUnitario(new BigDecimal("10.00"));
+            item.setVenta(venta);
+            venta.setItems(new ArrayList<>(List.of(item)));
+            ids.add(ventaRepository.save(venta).getId());
+        }
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAll();
+        estadisticas = sessionFactory.getStatistics();
+        estadisticas.clear();
+    }
+
+    /**
+     * Las ventas vuelven en el orden pedido, sin repetidos ni nulos, con sus ítems cargados;
+     * los ids inexistentes no figuran.
+     */
+    @Test
+    void cargar_respetaElOrdenYDescartaRepetidos() {
+        List<Long> pedidos = Arrays.asList(ids.get(4), ids.get(0), INEXISTENTE, ids.get(4), null, ids.get(2));
+
+        Map<Long, Venta> cargadas = loteLoader.cargar(pedidos);
+
+        assertEquals(List.of(ids.get(4), ids.get(0), ids.get(2)), List.copyOf(cargadas.keySet()));
+        Venta venta = cargadas.get(ids.get(4));
+        assertTrue(Hibernate.isInitialized(venta.getItems()));
+        assertEquals("Producto 4", venta.getItems().get(0).getNombreProducto());
+    }
+
+    /**
+     * Con lotes de 3, ocho ids (siete existentes) se buscan en tres consultas de ventas más una de
+     * ítems por lote; la segunda carga de los mismos ids sale entera de la caché de segundo nivel.
+     */
+    @Test
+    void cargar_particionaEnLotesYUsaLaCache() {
+        List<Long> pedidos = new ArrayList<>(ids);
+        pedidos.add(INEXISTENTE);
+
+        assertEquals(7, loteLoader.cargar(pedidos).size());
+        assertEquals(6, estadisticas.getPrepareStatementCount());
+        assertEquals(7, estadisticas.getEntityLoadCount() - estadisticas.getCollectionLoadCount());
+
+        estadisticas.clear();
+        assertEquals(7, loteLoader.cargar(ids).size());
+        assertEquals(0, estadisticas.getPrepareStatementCount());
+        assertEquals(7, estadisticas.getDomainDataRegionStatistics("venta").getHitCount());
+    }
+
+    /**
+     * Si hay otra página lo decide el índice, no la cantidad de ventas cargadas: una venta indexada
+     * que ya no está en la base deja la página corta, pero no la convierte en la última.
+     */
+    @Test
+    void buscarPorProducto_hayMasLoDecideElIndice() {
+        List<Long> collares = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Venta venta = new Venta();
+            ItemVenta item = new ItemVenta();
+            item.setNombreProducto("Collar reflectante");
+            item.setCantidad(1);
+            item.setPrecioUnitario(new BigDecimal("5.00"));
+            venta.setItems(new ArrayList<>(List.of(item)));
+            collares.add(ventaService.save(venta).getId());
+        }
+        // Borrada sin pasar por el servicio: sigue en el índice, como una baja aún no aplicada
+        ventaRepository.deleteById(collares.get(0));
+
+        Slice<Venta> primera = ventaService.buscarPorProducto("collar", null, null, 0, 2);
+        assertEquals(List.of(collares.get(1)), primera.getContent().stream().map(Venta::getId).toList());
+        assertTrue(primera.hasNext());
+
+        Slice<Venta> segunda = ventaService.buscarPorProducto("collar", null, null, 1, 2);
+        assertEquals(collares.subList(2, 4), segunda.getContent().stream().map(Venta::getId).toList());
+        assertFalse(segunda.hasNext());
+    }
+
+    /**
+     * El servicio informa los ids que no encontró, una sola vez cada uno.
+     */
+    @Test
+    void findAllByIds_informaLosNoEncontrados() {
+        VentaLoteDTO lote = ventaService.findAllByIds(List.of(ids.get(1), INEXISTENTE, ids.get(1), INEXISTENTE));
+
+        assertEquals(List.of(ids.get(1)), lote.getVentas().stream().map(Venta::getId).toList());
+        assertEquals(List.of(INEXISTENTE), lote.getNoEncontradas());
+    }
+}
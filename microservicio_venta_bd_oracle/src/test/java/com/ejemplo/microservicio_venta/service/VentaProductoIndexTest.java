@@ -0,0 +1,116 @@
+package com.ejemplo.microservicio_venta.service;
+
+import com.ejemplo.microservicio_venta.model.ItemVenta;
+import com.ejemplo.microservicio_venta.model.Venta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas unitarias del índice invertido de productos.
+ * No requieren contexto de Spring ni base de datos.
+ */
+class VentaProductoIndexTest {
+
+    private VentaProductoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VentaProductoIndex();
+        // Venta 1: laptop y mouse; venta 2: laptop; venta 3: teclado (otro mes)
+        index.reconstruir(List.of(
+            new VentaProductoIndex.Entrada(1L, LocalDateTime.of(2025, 9, 25, 10, 0), "Laptop Gamer"),
+            new VentaProductoIndex.Entrada(1L, LocalDateTime.of(2025, 9, 25, 10, 0), "Mouse inalámbrico"),
+            new VentaProductoIndex.Entrada(2L, LocalDateTime.of(2025, 9, 26, 12, 30), "Laptop Oficina"),
+            new VentaProductoIndex.Entrada(3L, LocalDateTime.of(2025, 10, 1, 9, 0), "Teclado mecánico")));
+    }
+
+    /**
+     * Un término coincide por token completo o por prefijo, sin distinguir mayúsculas ni tildes.
+     */
+    @Test
+    void buscar_porTokenYPrefijo() {
+        assertEquals(List.of(1L, 2L), index.buscar("laptop", null, null));
+        assertEquals(List.of(1L, 2L), index.buscar("LAP", null, null));
+        assertEquals(List.of(1L), index.buscar("inalambrico", null, null));
+        assertEquals(List.of(3L), index.buscar("mecá", null, null));
+    }
+
+    /**
+     * Con varios términos deben coincidir todos (intersección).
+     */
+    @Test
+    void buscar_variosTerminos_intersecta() {
+        assertEquals(List.of(1L), index.buscar("laptop mouse", null, null));
+        assertTrue(index.buscar("laptop teclado", null, null).isEmpty());
+    }
+
+    /**
+     * El rango de fechas se filtra con la fecha guardada en el índice.
+     */
+    @Test
+    void buscar_conRangoDeFechas() {
+        assertEquals(List.of(2L), index.buscar("laptop",
+            LocalDateTime.of(2025, 9, 26, 0, 0), LocalDateTime.of(2025, 9, 30, 23, 59)));
+    }
+
+    /**
+     * Al reindexar una venta se reemplazan sus tokens, y al removerla desaparece de las búsquedas.
+     */
+    @Test
+    void indexarYRemover_actualizaIncrementalmente() {
+        ItemVenta item = new ItemVenta();
+        item.setNombreProducto("Monitor curvo");
+        Venta venta = new Venta();
+        venta.setId(2L);
+        venta.setFechaVenta(LocalDateTime.of(2025, 9, 26, 12, 30));
+        venta.setItems(List.of(item));
+
+        index.indexar(venta);
+        assertEquals(List.of(1L), index.buscar("laptop", null, null));
+        assertEquals(List.of(2L), index.buscar("monitor", null, null));
+
+        index.remover(2L);
+        assertTrue(index.buscar("monitor", null, null).isEmpty());
+    }
+
+    /**
+     * La búsqueda paginada salta las páginas anteriores y corta en el límite.
+     */
+    @Test
+    void buscar_paginado() {
+        assertEquals(List.of(1L), index.buscar("laptop", null, null, 0, 1));
+        assertEquals(List.of(2L), index.buscar("laptop", null, null, 1, 1));
+        assertTrue(index.buscar("laptop", null, null, 2, 1).isEmpty());
+    }
+
+    /**
+     * Las altas y bajas que llegan mientras se cargan las entradas de una reconstrucción
+     * se conservan tras el intercambio del índice.
+     */
+    @Test
+    void reconstruir_conservaCambiosConcurrentes() {
+        ItemVenta item = new ItemVenta();
+        item.setNombreProducto("Monitor curvo");
+        Venta nueva = new Venta();
+        nueva.setId(4L);
+        nueva.setFechaVenta(LocalDateTime.of(2025, 10, 2, 11, 0));
+        nueva.setItems(List.of(item));
+
+        index.reconstruir(destino -> {
+            // Lectura "antigua" de la base: todavía contiene la venta 2 y no la 4
+            destino.accept(new VentaProductoIndex.Entrada(1L, LocalDateTime.of(2025, 9, 25, 10, 0), "Laptop Gamer"));
+            index.indexar(nueva);
+            index.remover(2L);
+            destino.accept(new VentaProductoIndex.Entrada(2L, LocalDateTime.of(2025, 9, 26, 12, 30), "Laptop Oficina"));
+        });
+
+        assertEquals(List.of(1L), index.buscar("laptop", null, null));
+        assertEquals(List.of(4L), index.buscar("monitor", null, null));
+    }
+}
@@ -0,0 +1,177 @@
+package com.ejemplo.microservicio_venta.service;
+
+import com.ejemplo.microservicio_venta.dto.EliminacionResultadoDTO;
+import com.ejemplo.microservicio_venta.model.ItemVenta;
+import com.ejemplo.microservicio_venta.model.Venta;
+import com.ejemplo.microservicio_venta.repository.VentaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Pruebas de la eliminación masiva de ventas sobre H2 (perfil "test"),
+ * con lotes de 2 ventas para ejercitar la partición.
+ */
+@SpringBootTest(properties = "ventas.eliminacion.tamano-lote=2")
+@ActiveProfiles("test")
+class VentaServiceEliminacionTest {
+
+    private static final String ROL_ITEMS = Venta.class.getName() + ".items";
+
+    @Autowired
+    private VentaService ventaService;
+
+    @SpyBean
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private VentaProductoIndex productoIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        ventaRepository.deleteAll();
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictAll();
+    }
+
+    // Guarda cinco ventas con el servicio (quedan también en el índice de productos)
+    private List<Long> cincoVentas() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ItemVenta item = new ItemVenta();
+            item.setNombreProducto("Teclado " + i);
+            item.setCantidad(1);
+            item.setPrecioUnitario(new BigDecimal("10.00"));
+            Venta venta = new Venta();
+            venta.setItems(new ArrayList<>(List.of(item)));
+            ids.add(ventaService.save(venta).getId());
+        }
+        return ids;
+    }
+
+    // Guarda una venta de marzo de 2024 (periodo cerrado) con un ítem
+    private Venta ventaGuardada(String producto) {
+        Venta venta = new Venta();
+        venta.setFechaVenta(LocalDateTime.of(2024, 3, 10, 12, 0));
+        venta.setTotal(new BigDecimal("10.00"));
+        ItemVenta item = new ItemVenta();
+        item.setNombreProducto(producto);
+        item.setCantidad(1);
+        item.setPrecioUnitario(new BigDecimal("10.00"));
+        item.setVenta(venta);
+        venta.setItems(new ArrayList<>(List.of(item)));
+        return ventaRepository.save(venta);
+    }
+
+    /**
+     * Borrar una venta retira de la caché solo esa venta, su colección y sus ítems;
+     * las demás ventas cacheadas siguen disponibles.
+     */
+    @Test
+    void eliminarPorIds_retiraDeCacheSoloLasVentasBorradas() {
+        Venta borrada = ventaGuardada("Laptop");
+        Venta conservada = ventaGuardada("Mouse");
+        cache.evictAll();
+        // Las ganancias del periodo cargan en caché las ventas, sus colecciones y sus ítems
+        ventaService.calcularGanancias("mensual", LocalDate.of(2024, 3, 1));
+        assertTrue(cache.containsEntity(Venta.class, borrada.getId()));
+        assertTrue(cache.containsEntity(Venta.class, conservada.getId()));
+
+        ventaService.eliminarPorIds(List.of(borrada.getId()));
+
+        assertFalse(cache.containsEntity(Venta.class, borrada.getId()));
+        assertFalse(cache.containsCollection(ROL_ITEMS, borrada.getId()));
+        assertFalse(cache.containsEntity(ItemVenta.class, borrada.getItems().get(0).getId()));
+        assertTrue(cache.containsEntity(Venta.class, conservada.getId()));
+        assertTrue(cache.containsCollection(ROL_ITEMS, conservada.getId()));
+        assertTrue(cache.containsEntity(ItemVenta.class, conservada.getItems().get(0).getId()));
+    }
+
+    /**
+     * Los ids se borran en lotes del tamaño configurado (5 ventas = 3 lotes) junto con sus ítems,
+     * y salen del índice de productos.
+     */
+    @Test
+    void eliminarPorIds_borraEnLotes() {
+        List<Long> ids = cincoVentas();
+
+        EliminacionResultadoDTO resultado = ventaService.eliminarPorIds(ids);
+
+        assertEquals(5, resultado.getVentasEliminadas());
+        assertEquals(5, resultado.getItemsEliminados());
+        verify(ventaRepository, times(3)).deleteByIdIn(argThat(lote -> lote.size() <= 2));
+        assertEquals(0, ventaRepository.count());
+        assertTrue(productoIndex.buscar("teclado", null, null).isEmpty());
+    }
+
+    /**
+     * Cada lote se confirma en su propia transacción: si falla el segundo, el primero queda
+     * borrado (y fuera del índice) y el segundo se revierte por completo, ítems incluidos.
+     */
+    @Test
+    void eliminarPorIds_fallaEnUnLote_conservaLosLotesConfirmados() {
+        List<Long> ids = cincoVentas();
+        // El repositorio es un proxy JDK: la respuesta por defecto del espía delega en el real
+        Answer<?> real = mockingDetails(ventaRepository).getMockCreationSettings().getDefaultAnswer();
+        AtomicInteger llamadas = new AtomicInteger();
+        doAnswer(invocacion -> {
+            if (llamadas.incrementAndGet() == 2) {
+                throw new QueryTimeoutException("Fallo simulado en el segundo lote");
+            }
+            return real.answer(invocacion);
+        }).when(ventaRepository).deleteByIdIn(anyCollection());
+
+        assertThrows(QueryTimeoutException.class, () -> ventaService.eliminarPorIds(ids));
+
+        assertEquals(List.of(ids.get(2), ids.get(3), ids.get(4)),
+            ventaRepository.findAllById(ids).stream().map(Venta::getId).sorted().toList());
+        assertEquals(3, ventaRepository.findItemIdsByVentaIdIn(ids).size());
+        assertEquals(List.of(ids.get(2), ids.get(3), ids.get(4)), productoIndex.buscar("teclado", null, null));
+    }
+
+    /**
+     * El borrado por rango pide lotes hasta agotar el rango, sin tocar ventas fuera de él.
+     */
+    @Test
+    void eliminarPorRango_borraSoloElRango() {
+        Venta fuera = ventaGuardada("Monitor");
+        cincoVentas();
+
+        EliminacionResultadoDTO resultado = ventaService.eliminarPorRango(
+            LocalDate.now().atStartOfDay(), LocalDate.now().plusDays(1).atStartOfDay());
+
+        assertEquals(5, resultado.getVentasEliminadas());
+        assertEquals(List.of(fuera.getId()), ventaRepository.findAll().stream().map(Venta::getId).toList());
+    }
+}